@@ -0,0 +1,9 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+public interface AsyncPathNodeMaker {
+    /**
+     * Marks this node maker as being used for asynchronous path searches. The mob it searches for is used by the
+     * server thread at the same time, so the node maker must not write to it.
+     */
+    void markAsync();
+}
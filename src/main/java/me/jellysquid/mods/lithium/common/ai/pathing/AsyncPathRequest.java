@@ -0,0 +1,172 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNodeNavigator;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.util.math.BlockPos;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A path search which runs on a worker thread against a {@link ChunkCacheSnapshot}. Requests are created and consumed
+ * on the server thread by the entity navigation which owns them.
+ *
+ * Navigators keep state during a search and can't be shared between threads, so the navigator given to a request may
+ * not be used for anything else until the request has completed.
+ */
+public class AsyncPathRequest {
+    private static final Logger LOGGER = LogManager.getLogger("Lithium");
+
+    /**
+     * The maximum number of requests which can be started in a single server tick. Any further requests are computed
+     * synchronously.
+     */
+    private static final int MAX_REQUESTS_PER_TICK = 64;
+
+    /**
+     * The maximum number of requests which can be running or waiting to run at any time.
+     */
+    private static final int MAX_PENDING_REQUESTS = 512;
+
+    /**
+     * The number of ticks after which a request which has not completed yet is abandoned in favor of computing the path
+     * synchronously.
+     */
+    public static final int MAX_WAIT_TICKS = 5;
+
+    /**
+     * The number of ticks for which the result of a completed request may be used.
+     */
+    public static final int MAX_RESULT_AGE = 20;
+
+    private static final AtomicInteger pendingRequests = new AtomicInteger();
+
+    // Only accessed from the server thread
+    private static long budgetTime = Long.MIN_VALUE;
+    private static int budgetUsed;
+
+    private final Set<BlockPos> targets;
+    private final int distance;
+
+    private final ChunkCacheSnapshot snapshot;
+
+    private final long time;
+
+    private final CompletableFuture<Path> future;
+
+    private AsyncPathRequest(Set<BlockPos> targets, int distance, ChunkCacheSnapshot snapshot, long time, CompletableFuture<Path> future) {
+        this.targets = targets;
+        this.distance = distance;
+        this.snapshot = snapshot;
+        this.time = time;
+        this.future = future;
+    }
+
+    /**
+     * Reserves a slot for a new request in the current tick. This must be called from the server thread.
+     *
+     * @return True if a request can be started, otherwise false
+     */
+    public static boolean tryReserve(long time) {
+        if (time != budgetTime) {
+            budgetTime = time;
+            budgetUsed = 0;
+        }
+
+        if (budgetUsed >= MAX_REQUESTS_PER_TICK || pendingRequests.get() >= MAX_PENDING_REQUESTS) {
+            return false;
+        }
+
+        budgetUsed++;
+
+        return true;
+    }
+
+    /**
+     * Starts a path search on a worker thread.
+     *
+     * @return The request, or null if the search could not be started
+     */
+    public static AsyncPathRequest submit(PathNodeNavigator navigator, ChunkCacheSnapshot snapshot, MobEntity entity, Set<BlockPos> targets,
+                                          float followRange, int distance, float rangeMultiplier, long time) {
+        pendingRequests.incrementAndGet();
+
+        CompletableFuture<Path> future;
+
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return navigator.findPathToAny(snapshot, entity, targets, followRange, distance, rangeMultiplier);
+                } finally {
+                    pendingRequests.decrementAndGet();
+                }
+            }, Workers.EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            pendingRequests.decrementAndGet();
+
+            return null;
+        }
+
+        return new AsyncPathRequest(targets, distance, snapshot, time, future);
+    }
+
+    public boolean matches(Set<BlockPos> targets, int distance) {
+        return this.distance == distance && this.targets.equals(targets);
+    }
+
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    /**
+     * @return True if the search failed with an exception, in which case the path should be computed synchronously
+     */
+    public boolean isFailed() {
+        return this.future.isCompletedExceptionally();
+    }
+
+    public Path getPath() {
+        try {
+            return this.future.getNow(null);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Asynchronous path search failed", e);
+
+            return null;
+        }
+    }
+
+    public long getAge(long time) {
+        return time - this.time;
+    }
+
+    public ChunkCacheSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    private static class Workers {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(getThreadCount(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Lithium Pathfinding Worker #" + this.count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+
+                return thread;
+            }
+        });
+
+        private static int getThreadCount() {
+            return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionView;
+import me.jellysquid.mods.lithium.common.world.chunk.ModificationTrackingSection;
+import me.jellysquid.mods.lithium.common.world.chunk.PalettedContainerSnapshot;
+import me.jellysquid.mods.lithium.common.world.chunk.SnapshotablePalettedContainer;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockCollisionSpliterator;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkCache;
+import net.minecraft.world.chunk.ChunkSection;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link ChunkCache} which reads blocks from snapshots of the chunk sections taken when it was created, and which can
+ * therefore be used from any thread while the world continues to be modified.
+ *
+ * Taking the snapshot is cheap, as the chunk sections share their data arrays with the snapshot and copy them before
+ * they are next modified. Block entities are not available through the snapshot.
+ */
+public class ChunkCacheSnapshot extends ChunkCache implements ChunkSectionView, SectionModificationView {
+    private static final BlockState DEFAULT_BLOCK = Blocks.AIR.getDefaultState();
+
+    private final BlockPos minPos, maxPos;
+    private final int xLen, zLen;
+
+    private final PalettedContainerSnapshot<BlockState>[] sections;
+    private final int[] sectionSummaryFlags;
+
+    // The live sections and their modification counts at the time of the snapshot, if modifications are being tracked
+    private final ChunkSection[] trackedSections;
+    private final int[] modificationCounts;
+
+    @SuppressWarnings("unchecked")
+    public ChunkCacheSnapshot(World world, BlockPos minPos, BlockPos maxPos) {
+        super(world, minPos, maxPos);
+
+        this.minPos = minPos.toImmutable();
+        this.maxPos = maxPos.toImmutable();
+
+        this.xLen = 1 + (maxPos.getX() >> 4) - this.minX;
+        this.zLen = 1 + (maxPos.getZ() >> 4) - this.minZ;
+
+        this.sections = new PalettedContainerSnapshot[this.xLen * this.zLen * 16];
+        this.sectionSummaryFlags = new int[this.sections.length];
+
+        if (ModificationTrackingSection.ENABLED) {
+            this.trackedSections = new ChunkSection[this.sections.length];
+            this.modificationCounts = new int[this.sections.length];
+        } else {
+            this.trackedSections = null;
+            this.modificationCounts = null;
+        }
+
+        for (int x = 0; x < this.xLen; x++) {
+            for (int z = 0; z < this.zLen; z++) {
+                Chunk chunk = this.chunks[x][z];
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                ChunkSection[] array = chunk.getSectionArray();
+
+                for (int y = 0; y < 16; y++) {
+                    ChunkSection section = array[y];
+                    int idx = this.getSectionIndex(x, y, z);
+
+                    if (this.trackedSections != null && section != null) {
+                        this.trackedSections[idx] = section;
+                        this.modificationCounts[idx] = ((ModificationTrackingSection) section).getModificationCount();
+                    }
+
+                    if (!ChunkSection.isEmpty(section)) {
+                        this.sections[idx] = ((SnapshotablePalettedContainer<BlockState>) section.getContainer()).createSnapshot();
+                        this.sectionSummaryFlags[idx] = ChunkSectionSummary.getFlags(section);
+                    }
+                }
+            }
+        }
+    }
+
+    private int getSectionIndex(int x, int y, int z) {
+        return (((x * this.zLen) + z) << 4) + y;
+    }
+
+    public BlockPos getMinPos() {
+        return this.minPos;
+    }
+
+    public BlockPos getMaxPos() {
+        return this.maxPos;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int y = pos.getY();
+
+        if (!World.isHeightInvalid(y)) {
+            int x = pos.getX();
+            int z = pos.getZ();
+
+            int chunkX = (x >> 4) - this.minX;
+            int chunkZ = (z >> 4) - this.minZ;
+
+            if (chunkX >= 0 && chunkX < this.xLen && chunkZ >= 0 && chunkZ < this.zLen) {
+                PalettedContainerSnapshot<BlockState> section = this.sections[this.getSectionIndex(chunkX, y >> 4, chunkZ)];
+
+                if (section != null) {
+                    return section.get(x & 15, y & 15, z & 15);
+                }
+            }
+        }
+
+        return DEFAULT_BLOCK;
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return this.getBlockState(pos).getFluidState();
+    }
+
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    /**
+     * Block collision checks read chunks through this method, so redirect them to the snapshot instead of the live
+     * chunks.
+     */
+    @Override
+    public BlockView getExistingChunk(int chunkX, int chunkZ) {
+        return this;
+    }
+
+    /**
+     * The optimized collision code reads chunk sections directly, so use the vanilla implementation which reads blocks
+     * through {@link #getExistingChunk(int, int)}.
+     */
+    @Override
+    public Stream<VoxelShape> getBlockCollisions(Entity entity, Box box) {
+        return StreamSupport.stream(new BlockCollisionSpliterator(this, entity, box), false);
+    }
+
+    @Override
+    public boolean doesNotCollide(Entity entity, Box box, Predicate<Entity> predicate) {
+        // Entity collisions are never visible through a chunk cache
+        return this.getBlockCollisions(entity, box).allMatch(VoxelShape::isEmpty);
+    }
+
+    @Override
+    public int getSectionSummaryFlags(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY >= 0 && sectionY < 16) {
+            int chunkX = sectionX - this.minX;
+            int chunkZ = sectionZ - this.minZ;
+
+            if (chunkX >= 0 && chunkX < this.xLen && chunkZ >= 0 && chunkZ < this.zLen) {
+                return this.sectionSummaryFlags[this.getSectionIndex(chunkX, sectionY, chunkZ)];
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public boolean containsSection(int sectionX, int sectionY, int sectionZ) {
+        if (this.trackedSections == null) {
+            return false;
+        }
+
+        int chunkX = sectionX - this.minX;
+        int chunkZ = sectionZ - this.minZ;
+
+        return chunkX >= 0 && chunkX < this.xLen && chunkZ >= 0 && chunkZ < this.zLen && this.chunks[chunkX][chunkZ] != null;
+    }
+
+    @Override
+    public ChunkSection getTrackedSection(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < 0 || sectionY >= 16) {
+            return null;
+        }
+
+        return this.trackedSections[this.getSectionIndex(sectionX - this.minX, sectionY, sectionZ - this.minZ)];
+    }
+
+    @Override
+    public int getSectionModificationCount(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < 0 || sectionY >= 16) {
+            return 0;
+        }
+
+        return this.modificationCounts[this.getSectionIndex(sectionX - this.minX, sectionY, sectionZ - this.minZ)];
+    }
+}
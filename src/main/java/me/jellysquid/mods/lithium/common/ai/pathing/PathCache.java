@@ -0,0 +1,242 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNode;
+import net.minecraft.entity.ai.pathing.PathNodeMaker;
+import net.minecraft.entity.ai.pathing.PathNodeType;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.chunk.ChunkSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A short-lived cache of paths which reached their target, allowing mobs heading towards the same destination to share
+ * a single search. A mob which stands on a node of a cached path for the same destination reuses the remainder of
+ * that path.
+ *
+ * Paths are keyed by everything which affects the nodes a search can visit: the type, size and pathfinding penalties of
+ * the entity, the settings of its node maker, the target, and the required distance to it. Each entry also remembers the modification
+ * counts of all chunk sections around its nodes, and is only used while none of them have changed.
+ *
+ * The cache is shared by the server thread and the workers of asynchronous path searches, so all access to it is
+ * synchronized.
+ */
+public class PathCache {
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * The number of ticks after which a cached path is discarded.
+     */
+    private static final int MAX_AGE = 200;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return this.size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @return A new path along the remainder of a cached path, starting at the node the entity is standing on, or null
+     * if there is no valid cached path
+     */
+    public Path getPath(SectionModificationView view, MobEntity entity, PathNodeMaker nodeMaker, BlockPos target, int distance, long time) {
+        // [VanillaCopy] LandPathNodeMaker#getStart, for entities which are standing on the ground
+        int startX = MathHelper.floor(entity.getX());
+        int startY = MathHelper.floor(entity.getY() + 0.5D);
+        int startZ = MathHelper.floor(entity.getZ());
+
+        Entry entry;
+
+        synchronized (this) {
+            entry = this.entries.get(new Key(entity, nodeMaker, target, distance));
+        }
+
+        if (entry == null || time - entry.time > MAX_AGE || !entry.isValid(view)) {
+            return null;
+        }
+
+        List<PathNode> nodes = entry.nodes;
+
+        for (int i = 0; i < nodes.size(); i++) {
+            PathNode node = nodes.get(i);
+
+            if (node.x == startX && node.y == startY && node.z == startZ) {
+                return new Path(new ArrayList<>(nodes.subList(i, nodes.size())), entry.target, true);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Stores a path which reached its target, if all of the chunk sections around it are visible through the view it
+     * was found in.
+     */
+    public void putPath(SectionModificationView view, MobEntity entity, PathNodeMaker nodeMaker, BlockPos target, int distance, Path path, long time) {
+        int length = path.getLength();
+
+        int sizeX = MathHelper.floor(entity.getWidth() + 1.0F);
+        int sizeY = MathHelper.floor(entity.getHeight() + 1.0F);
+
+        List<PathNode> nodes = new ArrayList<>(length);
+        LongOpenHashSet sectionPositions = new LongOpenHashSet();
+
+        for (int i = 0; i < length; i++) {
+            PathNode node = path.getNode(i);
+            nodes.add(node);
+
+            // The blocks the entity stands on and passes through, and their neighbors which can change the node types
+            for (int x = (node.x - 1) >> 4; x <= (node.x + sizeX) >> 4; x++) {
+                for (int y = (node.y - 1) >> 4; y <= (node.y + sizeY) >> 4; y++) {
+                    for (int z = (node.z - 1) >> 4; z <= (node.z + sizeX) >> 4; z++) {
+                        sectionPositions.add(ChunkSectionPos.asLong(x, y, z));
+                    }
+                }
+            }
+        }
+
+        int count = sectionPositions.size();
+
+        long[] positions = new long[count];
+        ChunkSection[] sections = new ChunkSection[count];
+        int[] modificationCounts = new int[count];
+
+        LongIterator it = sectionPositions.iterator();
+
+        for (int i = 0; i < count; i++) {
+            long pos = it.nextLong();
+
+            int x = ChunkSectionPos.unpackX(pos);
+            int y = ChunkSectionPos.unpackY(pos);
+            int z = ChunkSectionPos.unpackZ(pos);
+
+            if (!view.containsSection(x, y, z)) {
+                return;
+            }
+
+            positions[i] = pos;
+            sections[i] = view.getTrackedSection(x, y, z);
+            modificationCounts[i] = view.getSectionModificationCount(x, y, z);
+        }
+
+        Entry entry = new Entry(nodes, path.getTarget(), positions, sections, modificationCounts, time);
+
+        synchronized (this) {
+            this.entries.put(new Key(entity, nodeMaker, target, distance), entry);
+        }
+    }
+
+    private static class Entry {
+        final List<PathNode> nodes;
+        final BlockPos target;
+
+        final long[] sectionPositions;
+        final ChunkSection[] sections;
+        final int[] modificationCounts;
+
+        final long time;
+
+        Entry(List<PathNode> nodes, BlockPos target, long[] sectionPositions, ChunkSection[] sections, int[] modificationCounts, long time) {
+            this.nodes = nodes;
+            this.target = target;
+            this.sectionPositions = sectionPositions;
+            this.sections = sections;
+            this.modificationCounts = modificationCounts;
+            this.time = time;
+        }
+
+        boolean isValid(SectionModificationView view) {
+            for (int i = 0; i < this.sectionPositions.length; i++) {
+                long pos = this.sectionPositions[i];
+
+                int x = ChunkSectionPos.unpackX(pos);
+                int y = ChunkSectionPos.unpackY(pos);
+                int z = ChunkSectionPos.unpackZ(pos);
+
+                if (!view.containsSection(x, y, z) || view.getTrackedSection(x, y, z) != this.sections[i] ||
+                        view.getSectionModificationCount(x, y, z) != this.modificationCounts[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static class Key {
+        private static final PathNodeType[] NODE_TYPES = PathNodeType.values();
+
+        private final EntityType<?> type;
+        private final int sizeX, sizeY;
+        private final Class<?> nodeMakerType;
+        private final boolean canEnterOpenDoors, canOpenDoors, canSwim;
+        private final float[] penalties;
+        private final BlockPos target;
+        private final int distance;
+
+        Key(MobEntity entity, PathNodeMaker nodeMaker, BlockPos target, int distance) {
+            this.type = entity.getType();
+            this.sizeX = MathHelper.floor(entity.getWidth() + 1.0F);
+            this.sizeY = MathHelper.floor(entity.getHeight() + 1.0F);
+            this.nodeMakerType = nodeMaker.getClass();
+            this.canEnterOpenDoors = nodeMaker.canEnterOpenDoors();
+            this.canOpenDoors = nodeMaker.canOpenDoors();
+            this.canSwim = nodeMaker.canSwim();
+            this.penalties = getPathfindingPenalties(entity);
+            this.target = target.toImmutable();
+            this.distance = distance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return this.type == key.type && this.sizeX == key.sizeX && this.sizeY == key.sizeY &&
+                    this.nodeMakerType == key.nodeMakerType && this.canEnterOpenDoors == key.canEnterOpenDoors &&
+                    this.canOpenDoors == key.canOpenDoors && this.canSwim == key.canSwim &&
+                    this.distance == key.distance && this.target.equals(key.target) &&
+                    Arrays.equals(this.penalties, key.penalties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.type, this.sizeX, this.sizeY, this.nodeMakerType, this.canEnterOpenDoors,
+                    this.canOpenDoors, this.canSwim, this.target, this.distance, Arrays.hashCode(this.penalties));
+        }
+
+        /**
+         * The penalties of a mob decide which nodes it can walk through and at what cost. They can be changed on each
+         * individual mob at any time (such as by FollowOwnerGoal, which lets pets walk through water), so they are part
+         * of the key rather than being assumed to be the same for all mobs of a type.
+         */
+        private static float[] getPathfindingPenalties(MobEntity entity) {
+            float[] penalties = new float[NODE_TYPES.length];
+
+            for (int i = 0; i < NODE_TYPES.length; i++) {
+                penalties[i] = entity.getPathfindingPenalty(NODE_TYPES[i]);
+            }
+
+            return penalties;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+public interface PathCacheHolder {
+    /**
+     * @return The cache of recently found paths in this world
+     */
+    PathCache getPathCache();
+}
@@ -0,0 +1,180 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+import me.jellysquid.mods.lithium.common.block.BlockStateTables;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockStateSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockSummaryFlags;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionView;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.ai.pathing.PathNodeType;
+import net.minecraft.world.BlockView;
+
+import java.util.function.Function;
+
+/**
+ * Caches the path node types of block states in flat arrays indexed by the raw id of each state. Each entry stores the
+ * ordinal of the node type plus one, so that zero signals a missing entry.
+ *
+ * The arrays are published through a volatile field and can be read from any thread. Entries are written without any
+ * synchronization, which is safe because byte writes are atomic and racing threads always compute the same value.
+ *
+ * The node types depend on block tags, so all caches are invalidated whenever the shape caches of block states are
+ * refreshed after tags have been (re)loaded.
+ */
+public class PathNodeTypeCache {
+    private static final PathNodeType[] TYPES = PathNodeType.values();
+
+    /**
+     * The blocks which can affect the node type of a neighbor. If the block summary of a chunk section contains none of
+     * these, a scan of neighboring blocks within it will never find anything.
+     */
+    private static final int NEIGHBOR_FLAGS = BlockSummaryFlags.DAMAGING | BlockSummaryFlags.FLUIDS;
+
+    private static volatile int generation;
+
+    private final Function<BlockState, PathNodeType> commonTypeFunction;
+    private final Function<BlockState, PathNodeType> neighborTypeFunction;
+
+    private volatile Tables tables;
+
+    public PathNodeTypeCache(Function<BlockState, PathNodeType> commonTypeFunction, Function<BlockState, PathNodeType> neighborTypeFunction) {
+        this.commonTypeFunction = commonTypeFunction;
+        this.neighborTypeFunction = neighborTypeFunction;
+    }
+
+    /**
+     * Invalidates the contents of all caches. This must be called from the thread which reloads tags.
+     */
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    public static void invalidateAll() {
+        generation++;
+    }
+
+    /**
+     * @return The node type of the block state, ignoring any checks which depend on the world
+     */
+    public PathNodeType getCommonNodeType(BlockState state) {
+        byte[] types = this.getTables().commonTypes;
+        int id = BlockStateTables.getRawId(state);
+
+        if (id < 0 || id >= types.length) {
+            return this.commonTypeFunction.apply(state);
+        }
+
+        int value = types[id];
+
+        if (value == 0) {
+            PathNodeType type = this.commonTypeFunction.apply(state);
+            types[id] = (byte) (type.ordinal() + 1);
+
+            return type;
+        }
+
+        return TYPES[value - 1];
+    }
+
+    /**
+     * @return The node type which the block state imposes on its neighbors
+     */
+    public PathNodeType getNeighborNodeType(BlockState state) {
+        byte[] types = this.getTables().neighborTypes;
+        int id = BlockStateTables.getRawId(state);
+
+        if (id < 0 || id >= types.length) {
+            return this.neighborTypeFunction.apply(state);
+        }
+
+        int value = types[id];
+
+        if (value == 0) {
+            PathNodeType type = this.neighborTypeFunction.apply(state);
+            types[id] = (byte) (type.ordinal() + 1);
+
+            return type;
+        }
+
+        return TYPES[value - 1];
+    }
+
+    /**
+     * Checks whether all blocks in the 3x3x3 area around the given position are known to have no effect on the node
+     * type of the block at the center, using the block summaries of the chunk sections which contain them.
+     *
+     * @return True if the neighbor scan for this position can be skipped, otherwise false
+     */
+    public boolean isNeighborhoodOpen(BlockView view, int x, int y, int z) {
+        if (!ChunkSectionSummary.ENABLED || !(view instanceof ChunkSectionView) || !this.getTables().summariesMatch) {
+            return false;
+        }
+
+        ChunkSectionView sections = (ChunkSectionView) view;
+
+        for (int sectionX = (x - 1) >> 4; sectionX <= (x + 1) >> 4; sectionX++) {
+            for (int sectionY = (y - 1) >> 4; sectionY <= (y + 1) >> 4; sectionY++) {
+                for (int sectionZ = (z - 1) >> 4; sectionZ <= (z + 1) >> 4; sectionZ++) {
+                    if ((sections.getSectionSummaryFlags(sectionX, sectionY, sectionZ) & NEIGHBOR_FLAGS) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Tables getTables() {
+        Tables tables = this.tables;
+        int generation = PathNodeTypeCache.generation;
+
+        if (tables == null || tables.generation != generation) {
+            this.tables = tables = new Tables(generation, this.neighborTypeFunction);
+        }
+
+        return tables;
+    }
+
+    private static class Tables {
+        final int generation;
+
+        final byte[] commonTypes;
+        final byte[] neighborTypes;
+
+        /**
+         * True if every block state which changes the node type of its neighbors is covered by {@link #NEIGHBOR_FLAGS}.
+         * This only fails if data packs add other blocks to the tags used by the neighbor checks.
+         */
+        final boolean summariesMatch;
+
+        Tables(int generation, Function<BlockState, PathNodeType> neighborTypeFunction) {
+            int size = Block.STATE_IDS.size();
+
+            this.generation = generation;
+            this.commonTypes = new byte[size];
+            this.neighborTypes = new byte[size];
+
+            boolean summariesMatch = ChunkSectionSummary.ENABLED;
+
+            // Skipping chunk sections is only valid if every block state has been checked against its summary flags,
+            // so the neighbor types are computed for all states up front
+            for (BlockState state : Block.STATE_IDS) {
+                int id = BlockStateTables.getRawId(state);
+
+                if (id < 0 || id >= size) {
+                    summariesMatch = false;
+
+                    continue;
+                }
+
+                PathNodeType type = neighborTypeFunction.apply(state);
+                this.neighborTypes[id] = (byte) (type.ordinal() + 1);
+
+                if (summariesMatch && type != PathNodeType.OPEN) {
+                    summariesMatch = (((BlockStateSummary) state).getSummaryFlags() & NEIGHBOR_FLAGS) != 0;
+                }
+            }
+
+            this.summariesMatch = summariesMatch;
+        }
+    }
+}
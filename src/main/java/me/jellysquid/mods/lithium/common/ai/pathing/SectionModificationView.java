@@ -0,0 +1,28 @@
+package me.jellysquid.mods.lithium.common.ai.pathing;
+
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * Implemented by block views which can tell whether the chunk sections visible through them have been modified, which
+ * allows results computed from one view to be validated against another.
+ */
+public interface SectionModificationView {
+    /**
+     * Sections above or below the world are considered visible if the chunk containing them is, and are always empty.
+     *
+     * @return True if the chunk section at the given section coordinates is visible through this view
+     */
+    boolean containsSection(int sectionX, int sectionY, int sectionZ);
+
+    /**
+     * The section must be visible through this view.
+     *
+     * @return The chunk section at the given section coordinates, or null if it does not exist
+     */
+    ChunkSection getTrackedSection(int sectionX, int sectionY, int sectionZ);
+
+    /**
+     * @return The modification count of the chunk section at the given section coordinates, or 0 if it does not exist
+     */
+    int getSectionModificationCount(int sectionX, int sectionY, int sectionZ);
+}
@@ -0,0 +1,89 @@
+package me.jellysquid.mods.lithium.common.block;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FluidBlock;
+import net.minecraft.block.ScaffoldingBlock;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+public class BlockShapeHelper {
+    /**
+     * The runtime name of {@link AbstractBlock#getCollisionShape(BlockState, BlockView, BlockPos, ShapeContext)}.
+     */
+    private static final String GET_COLLISION_SHAPE = FabricLoader.getInstance().getMappingResolver()
+            .mapMethodName("intermediary", "net.minecraft.class_4970", "method_9549",
+                    "(Lnet/minecraft/class_2680;Lnet/minecraft/class_1922;Lnet/minecraft/class_2338;Lnet/minecraft/class_3726;)Lnet/minecraft/class_265;");
+
+    /**
+     * The runtime name of {@link AbstractBlock#getOutlineShape(BlockState, BlockView, BlockPos, ShapeContext)}, which
+     * the collision shape is derived from unless a block overrides it.
+     */
+    private static final String GET_OUTLINE_SHAPE = FabricLoader.getInstance().getMappingResolver()
+            .mapMethodName("intermediary", "net.minecraft.class_4970", "method_9530",
+                    "(Lnet/minecraft/class_2680;Lnet/minecraft/class_1922;Lnet/minecraft/class_2338;Lnet/minecraft/class_3726;)Lnet/minecraft/class_265;");
+
+    private static final Class<?>[] SHAPE_METHOD_PARAMS = new Class<?>[] {
+            BlockState.class, BlockView.class, BlockPos.class, ShapeContext.class
+    };
+
+    private static final ClassValue<Boolean> MODDED_CONTEXT_DEPENDENT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overridesShapeMethods(type);
+        }
+    };
+
+    /**
+     * Returns whether the collision shape of a block state may differ from the one returned for an empty shape context,
+     * either because the shape can change without the block state changing, or because it depends on the entity which
+     * is colliding with the block (such as scaffolding, or lava which striders can walk on). The shapes of these
+     * blocks must not be computed ahead of time or skipped because they appear to be empty.
+     * <p>
+     * Vanilla blocks are matched by their type. Any block from another mod which overrides the context-sensitive
+     * collision or outline shape method is assumed to depend on the context, as there is no way to tell what it does
+     * with it. Vanilla blocks whose shape methods are changed by other mods through mixins can't be detected here.
+     */
+    public static boolean hasContextDependentCollisionShape(BlockState state) {
+        if (state.hasDynamicBounds()) {
+            return true;
+        }
+
+        Block block = state.getBlock();
+
+        if (block instanceof ScaffoldingBlock || block instanceof FluidBlock) {
+            return true;
+        }
+
+        return MODDED_CONTEXT_DEPENDENT.get(block.getClass());
+    }
+
+    /**
+     * @return True if the block is an instance of a vanilla class, rather than one added by another mod
+     */
+    public static boolean isVanillaBlock(Block block) {
+        return block.getClass().getName().startsWith("net.minecraft.");
+    }
+
+    private static boolean overridesShapeMethods(Class<?> type) {
+        // Vanilla blocks are handled above, so stop at the first vanilla class in the hierarchy
+        for (Class<?> clazz = type; clazz != null && !clazz.getName().startsWith("net.minecraft."); clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                String name = method.getName();
+
+                if ((name.equals(GET_COLLISION_SHAPE) || name.equals(GET_OUTLINE_SHAPE)) &&
+                        Arrays.equals(method.getParameterTypes(), SHAPE_METHOD_PARAMS)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package me.jellysquid.mods.lithium.common.block;
+
+public interface BlockStateTableIndex {
+    /**
+     * @return The index of this block state in the {@link BlockStateTables}, or -1 if it is not in the tables
+     */
+    int getTableIndex();
+
+    void setTableIndex(int index);
+}
@@ -0,0 +1,107 @@
+package me.jellysquid.mods.lithium.common.block;
+
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.EmptyBlockView;
+
+/**
+ * Flat tables of block state properties, indexed by the raw id of each state in {@link Block#STATE_IDS}. Currently, this
+ * holds the collision shape of every state whose shape is the same at any position and for any entity, which allows
+ * the collision sweeper to skip the virtual shape lookup that vanilla performs for every entity collision.
+ * The raw id of each state is also stored on the state itself for use by other tables indexed by state.
+ *
+ * The tables are rebuilt whenever vanilla refreshes the shape caches of all block states, which happens once the block
+ * registry has been frozen and again after tags have been reloaded.
+ */
+public class BlockStateTables {
+    public static final boolean ENABLED = BlockStateTableIndex.class.isAssignableFrom(AbstractBlock.AbstractBlockState.class);
+
+    private static volatile BlockStateTables tables = new BlockStateTables(0);
+
+    private final VoxelShape[] collisionShapes;
+
+    private BlockStateTables(int size) {
+        this.collisionShapes = new VoxelShape[size];
+    }
+
+    /**
+     * Rebuilds the tables from the current contents of {@link Block#STATE_IDS}. This must only be called after the
+     * shape caches of all block states have been initialized.
+     */
+    public static void rebuild() {
+        BlockStateTables tables = new BlockStateTables(Block.STATE_IDS.size());
+
+        for (BlockState state : Block.STATE_IDS) {
+            int id = Block.STATE_IDS.getRawId(state);
+
+            if (id < 0 || id >= tables.collisionShapes.length) {
+                continue;
+            }
+
+            tables.collisionShapes[id] = computeConstantCollisionShape(state);
+
+            ((BlockStateTableIndex) state).setTableIndex(id);
+        }
+
+        BlockStateTables.tables = tables;
+    }
+
+    /**
+     * Vanilla never caches the context-aware collision shape, so this is an assumption of our own. It is only made for
+     * blocks of vanilla classes, as the shape methods of blocks from other mods may depend on the world in ways which
+     * can't be detected. Mods which change the shapes of vanilla blocks through mixins should disable the
+     * block.state_tables patch set.
+     *
+     * @return The collision shape of the block state if it is the same at any position and for any entity, otherwise
+     * null
+     */
+    private static VoxelShape computeConstantCollisionShape(BlockState state) {
+        Block block = state.getBlock();
+
+        if (!BlockShapeHelper.isVanillaBlock(block) || BlockShapeHelper.hasContextDependentCollisionShape(state) ||
+                block.getOffsetType() != AbstractBlock.OffsetType.NONE) {
+            return null;
+        }
+
+        return state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN);
+    }
+
+    private static int indexOf(BlockState state, BlockStateTables tables) {
+        int id = ((BlockStateTableIndex) state).getTableIndex();
+
+        return id < tables.collisionShapes.length ? id : -1;
+    }
+
+    /**
+     * Returns a dense id for the block state which can be used to index into arrays of size {@link Block#STATE_IDS}.
+     * This is the raw id of the state as of the last rebuild, which is stored on the state itself when the tables are
+     * enabled, and otherwise looked up in the id list.
+     *
+     * @return The id of the block state, or -1 if it is unknown
+     */
+    public static int getRawId(BlockState state) {
+        if (ENABLED) {
+            return ((BlockStateTableIndex) state).getTableIndex();
+        }
+
+        return Block.STATE_IDS.getRawId(state);
+    }
+
+    /**
+     * @return The collision shape of the block state if it doesn't depend on the world, position or entity, otherwise
+     * null
+     */
+    public static VoxelShape getConstantCollisionShape(BlockState state) {
+        if (!ENABLED) {
+            return null;
+        }
+
+        BlockStateTables tables = BlockStateTables.tables;
+        int id = indexOf(state, tables);
+
+        return id >= 0 ? tables.collisionShapes[id] : null;
+    }
+}
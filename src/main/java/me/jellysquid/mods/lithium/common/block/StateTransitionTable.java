@@ -0,0 +1,148 @@
+package me.jellysquid.mods.lithium.common.block;
+
+import net.minecraft.state.State;
+import net.minecraft.state.property.Property;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flat lookup table of every state belonging to a single owner (a block or a fluid). Each state is assigned an index
+ * in mixed radix, where each digit is the index of the state's value for one of the owner's properties. Changing the
+ * value of a property is then a matter of adjusting a single digit of the index, which avoids the hashing performed by
+ * the nested maps of {@link State#with(Property, Comparable)}.
+ */
+public class StateTransitionTable<S> {
+    private final Property<?>[] properties;
+    private final Object[][] values;
+    private final int[] strides;
+
+    private final Object[] states;
+
+    private StateTransitionTable(Property<?>[] properties, Object[][] values, int[] strides, int size) {
+        this.properties = properties;
+        this.values = values;
+        this.strides = strides;
+        this.states = new Object[size];
+    }
+
+    /**
+     * Builds the transition table for a set of states and assigns each state its index in the table.
+     */
+    public static <S> void create(Collection<Property<?>> properties, List<S> states) {
+        int count = properties.size();
+
+        Property<?>[] propertyArray = properties.toArray(new Property<?>[0]);
+        Object[][] values = new Object[count][];
+        int[] strides = new int[count];
+
+        int size = 1;
+
+        for (int i = count - 1; i >= 0; i--) {
+            values[i] = propertyArray[i].getValues().toArray();
+            strides[i] = size;
+
+            size *= values[i].length;
+        }
+
+        StateTransitionTable<S> table = new StateTransitionTable<>(propertyArray, values, strides, size);
+
+        for (S state : states) {
+            Map<Property<?>, Comparable<?>> entries = ((State<?, ?>) state).getEntries();
+
+            int index = 0;
+
+            for (int i = 0; i < count; i++) {
+                int valueIndex = indexOf(values[i], entries.get(propertyArray[i]));
+
+                if (valueIndex < 0) {
+                    throw new IllegalStateException("State " + state + " has a value which is not allowed by property " + propertyArray[i]);
+                }
+
+                index += valueIndex * strides[i];
+            }
+
+            table.states[index] = state;
+
+            @SuppressWarnings("unchecked")
+            StateTransitionTableHolder<S> holder = (StateTransitionTableHolder<S>) state;
+            holder.setTransitionTable(table, index);
+        }
+    }
+
+    private static int indexOf(Object[] values, Object value) {
+        // The values of properties are nearly always interned (enum constants, booleans and small integers)
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int getPropertyIndex(Property<?> property) {
+        Property<?>[] properties = this.properties;
+
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i] == property) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return The state which differs from the state at {@param index} only by the value of {@param property}, or null
+     * if the property or value is not allowed for this owner
+     */
+    @SuppressWarnings("unchecked")
+    public S with(int index, Property<?> property, Object value) {
+        int propertyIndex = this.getPropertyIndex(property);
+
+        if (propertyIndex < 0) {
+            return null;
+        }
+
+        Object[] values = this.values[propertyIndex];
+        int valueIndex = indexOf(values, value);
+
+        if (valueIndex < 0) {
+            return null;
+        }
+
+        int stride = this.strides[propertyIndex];
+        int currentIndex = (index / stride) % values.length;
+
+        return (S) this.states[index + ((valueIndex - currentIndex) * stride)];
+    }
+
+    /**
+     * @return The state which differs from the state at {@param index} only by having the next value of
+     * {@param property}, wrapping around after the last value, or null if the property does not belong to this owner
+     */
+    @SuppressWarnings("unchecked")
+    public S cycle(int index, Property<?> property) {
+        int propertyIndex = this.getPropertyIndex(property);
+
+        if (propertyIndex < 0) {
+            return null;
+        }
+
+        int length = this.values[propertyIndex].length;
+        int stride = this.strides[propertyIndex];
+        int currentIndex = (index / stride) % length;
+
+        int nextIndex = currentIndex + 1 < length ? currentIndex + 1 : 0;
+
+        return (S) this.states[index + ((nextIndex - currentIndex) * stride)];
+    }
+}
@@ -0,0 +1,5 @@
+package me.jellysquid.mods.lithium.common.block;
+
+public interface StateTransitionTableHolder<S> {
+    void setTransitionTable(StateTransitionTable<S> table, int index);
+}
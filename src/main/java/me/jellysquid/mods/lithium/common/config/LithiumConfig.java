@@ -23,14 +23,17 @@ public class LithiumConfig {
     private static final String JSON_KEY_LITHIUM_OPTIONS = "lithium:options";
 
     private final Map<String, Option> options = new HashMap<>();
+    private final Map<String, String> renamedOptions = new HashMap<>();
 
     private LithiumConfig() {
         // Defines the default rules which can be configured by the user or other mods.
         // You must manually add a rule for any new mixins not covered by an existing package rule.
 
         this.addMixinRule("ai", true);
+        this.addMixinRule("ai.async_pathing", false);
         this.addMixinRule("ai.goal", true);
         this.addMixinRule("ai.nearby_entity_tracking", true);
+        this.addMixinRule("ai.path_sharing", true);
         this.addMixinRule("ai.pathing", true);
         this.addMixinRule("ai.poi", true);
         this.addMixinRule("ai.raid", true);
@@ -41,17 +44,23 @@ public class LithiumConfig {
         this.addMixinRule("alloc.chunk_ticking", true);
         this.addMixinRule("alloc.entity_tracker", true);
         this.addMixinRule("alloc.enum_values", true);
+        this.addMixinRule("alloc.path_nodes", true);
         this.addMixinRule("alloc.world_ticking", true);
 
         this.addMixinRule("block", true);
         this.addMixinRule("block.flatten_states", true);
         this.addMixinRule("block.piston_shapes", true);
+        this.addMixinRule("block.state_tables", true);
+        this.addMixinRule("block.state_transitions", true);
 
         this.addMixinRule("cached_hashcode", true);
 
         this.addMixinRule("chunk", true);
+        this.addMixinRule("chunk.block_summary", true);
+        this.addMixinRule("chunk.fast_packed_array", true);
+        this.addMixinRule("chunk.idle_compaction", true);
+        this.addMixinRule("chunk.modification_tracking", true);
         this.addMixinRule("chunk.no_locking", false);
-        this.addMixinRule("chunk.oversized_blocks", true);
         this.addMixinRule("chunk.palette", true);
         this.addMixinRule("chunk.serialization", true);
 
@@ -61,9 +70,12 @@ public class LithiumConfig {
         this.addMixinRule("entity", true);
         this.addMixinRule("entity.block_cache", true);
         this.addMixinRule("entity.collisions", true);
+        this.addMixinRule("entity.cramming_spatial_hash", true);
         this.addMixinRule("entity.data_tracker", true);
+        this.addMixinRule("entity.fluid_section_skip", true);
         this.addMixinRule("entity.gravity_check_block_below", true);
         this.addMixinRule("entity.replace_entitytype_predicates", true);
+        this.addMixinRule("entity.resting_fast_path", true);
         this.addMixinRule("entity.stream_entity_collisions_lazily", true);
 
         this.addMixinRule("gen", true);
@@ -81,8 +93,10 @@ public class LithiumConfig {
 
         this.addMixinRule("shapes", true);
         this.addMixinRule("shapes.blockstate_cache", true);
+        this.addMixinRule("shapes.parallel_shape_cache", true);
         this.addMixinRule("shapes.precompute_shape_arrays", true);
         this.addMixinRule("shapes.shape_merging", true);
+        this.addMixinRule("shapes.shape_pair_cache", true);
         this.addMixinRule("shapes.specialized_shapes", true);
 
         this.addMixinRule("tag", true);
@@ -91,14 +105,23 @@ public class LithiumConfig {
         this.addMixinRule("world.block_entity_ticking", true);
         this.addMixinRule("world.chunk_access", true);
         this.addMixinRule("world.chunk_inline_block_access", true);
+        this.addMixinRule("world.chunk_task_priority", true);
         this.addMixinRule("world.chunk_task_system", true);
         this.addMixinRule("world.chunk_tickets", true);
         this.addMixinRule("world.chunk_ticking", true);
+        this.addMixinRule("world.explosion_batching", true);
         this.addMixinRule("world.explosions", true);
         this.addMixinRule("world.fast_island_noise", true);
+        this.addMixinRule("world.light_batching", true);
         this.addMixinRule("world.mob_spawning", true);
         this.addMixinRule("world.player_chunk_tick", true);
+        this.addMixinRule("world.random_tick_index", true);
         this.addMixinRule("world.tick_scheduler", true);
+        this.addMixinRule("world.ticking_chunk_list", true);
+        this.addMixinRule("world.uniform_sky_light", true);
+
+        // Rules which have since been renamed, so that existing configuration files and mod overrides keep working
+        this.addRenamedMixinRule("chunk.oversized_blocks", "chunk.block_summary");
     }
 
     /**
@@ -115,12 +138,39 @@ public class LithiumConfig {
         }
     }
 
+    /**
+     * Defines an old name for an existing Mixin rule. Any value given for the old name is applied to the new rule.
+     * @param oldMixin The name of the mixin package which was previously controlled by the rule
+     * @param newMixin The name of the rule which replaces it
+     */
+    private void addRenamedMixinRule(String oldMixin, String newMixin) {
+        String newName = getMixinRuleName(newMixin);
+
+        if (!this.options.containsKey(newName)) {
+            throw new IllegalStateException("Mixin rule does not exist: " + newMixin);
+        }
+
+        this.renamedOptions.put(getMixinRuleName(oldMixin), newName);
+    }
+
+    private Option getOption(String name) {
+        String newName = this.renamedOptions.get(name);
+
+        if (newName != null) {
+            LOGGER.warn("Configuration key '{}' has been renamed to '{}', please update your configuration", name, newName);
+
+            name = newName;
+        }
+
+        return this.options.get(name);
+    }
+
     private void readProperties(Properties props) {
         for (Map.Entry<Object, Object> entry : props.entrySet()) {
             String key = (String) entry.getKey();
             String value = (String) entry.getValue();
 
-            Option option = this.options.get(key);
+            Option option = this.getOption(key);
 
             if (option == null) {
                 LOGGER.warn("No configuration key exists with name '{}', ignoring", key);
@@ -162,7 +212,7 @@ public class LithiumConfig {
     }
 
     private void applyModOverride(ModMetadata meta, String name, CustomValue value) {
-        Option option = this.options.get(name);
+        Option option = this.getOption(name);
 
         if (option == null) {
             LOGGER.warn("Mod '{}' attempted to override option '{}', which doesn't exist, ignoring", meta.getId(), name);
@@ -1,6 +1,10 @@
 package me.jellysquid.mods.lithium.common.entity.movement;
 
+import me.jellysquid.mods.lithium.common.block.BlockStateTables;
 import me.jellysquid.mods.lithium.common.shapes.VoxelShapeCaster;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockSummaryFlags;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionCollisionMasks;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.ShapeContext;
@@ -19,11 +23,13 @@ import static me.jellysquid.mods.lithium.common.entity.LithiumEntityCollisions.E
 
 /**
  * ChunkAwareBlockCollisionSweeper iterates over blocks in one chunk section at a time. Together with the chunk
- * section keeping track of the amount of oversized blocks inside the number of iterations can often be reduced.
+ * section keeping track of which classes of blocks are inside (see {@link ChunkSectionSummary}), the number of
+ * iterations can often be reduced: sections without any collidable blocks are skipped entirely, and sections without
+ * oversized blocks don't need to be searched beyond the box. Within a section, the collision masks of the section (see
+ * {@link ChunkSectionCollisionMasks}) are used to skip over blocks without a collision shape one row at a time, and
+ * full cube blocks are tested against the box directly.
  */
 public class ChunkAwareBlockCollisionSweeper {
-    private static final boolean OVERSIZED_BLOCK_COUNTING_ENABLED = OversizedBlocksCounter.class.isAssignableFrom(ChunkSection.class);
-
     private final BlockPos.Mutable pos = new BlockPos.Mutable();
 
     /**
@@ -44,17 +50,24 @@ public class ChunkAwareBlockCollisionSweeper {
 
     //variables prefixed with c refer to the iteration of the currently cached chunk section
     private int chunkX, chunkY, chunkZ;
-    private int cStartX, cStartZ;
-    private int cEndX, cEndZ;
-    private int cX, cY, cZ;
+    private int cStartZ, cEndY, cEndZ;
+    private int cY, cZ;
+
+    //bits of the x-coordinates (relative to the section) that lie inside the iterated area
+    private long cRowRange;
 
-    private int cTotalSize;
-    private int cIterated;
+    //bits of the x-coordinates left to visit in the current row, and the full cube blocks in the current row
+    private long cRowBits;
+    private long cRowFullCubes;
 
     private boolean sectionOversizedBlocks;
     private Chunk cachedChunk;
     private ChunkSection cachedChunkSection;
 
+    //masks of the blocks in the cached chunk section which need to be looked at, see ChunkSectionCollisionMasks
+    private long[] cCollidableMask;
+    private long[] cFullCubeMask;
+
     public ChunkAwareBlockCollisionSweeper(CollisionView view, Entity entity, Box box) {
         this.box = box;
         this.shape = VoxelShapes.cuboid(box);
@@ -71,14 +84,13 @@ public class ChunkAwareBlockCollisionSweeper {
         this.chunkX = (this.minX - 1) >> 4;
         this.chunkZ = (this.minZ - 1) >> 4;
 
-        this.cIterated = 0;
-        this.cTotalSize = 0;
-
         //decrement as first nextSection call will increment it again
         this.chunkX--;
     }
 
     private boolean nextSection() {
+        int cStartX, cEndX, cStartY;
+
         do {
             do {
                 //find the coordinates of the next section inside the area expanded by 1 block on all sides
@@ -107,32 +119,72 @@ public class ChunkAwareBlockCollisionSweeper {
                         this.cachedChunkSection = this.cachedChunk.getSectionArray()[this.chunkY];
                     }
                 }
-            //skip empty chunks and empty chunk sections
-            } while (this.cachedChunk == null || ChunkSection.isEmpty(this.cachedChunkSection));
+            //skip empty chunks and chunk sections which are empty or contain no collidable blocks
+            } while (this.cachedChunk == null || !ChunkSectionSummary.hasAny(this.cachedChunkSection, BlockSummaryFlags.COLLIDABLE));
 
-            this.sectionOversizedBlocks = hasChunkSectionOversizedBlocks(this.cachedChunk, this.chunkY);
+            //like vanilla, assume that a chunk section has oversized blocks, when the section summary isn't available
+            this.sectionOversizedBlocks = ChunkSectionSummary.hasAny(this.cachedChunkSection, BlockSummaryFlags.OVERSIZED);
 
             int sizeExtension = this.sectionOversizedBlocks ? 1 : 0;
 
-            this.cEndX = Math.min(this.maxX + sizeExtension, 15 + (this.chunkX << 4));
-            int cEndY = Math.min(this.maxY + sizeExtension, 15 + (this.chunkY << 4));
+            cEndX = Math.min(this.maxX + sizeExtension, 15 + (this.chunkX << 4));
+            this.cEndY = Math.min(this.maxY + sizeExtension, 15 + (this.chunkY << 4));
             this.cEndZ = Math.min(this.maxZ + sizeExtension, 15 + (this.chunkZ << 4));
 
-            this.cStartX = Math.max(this.minX - sizeExtension, this.chunkX << 4);
-            int cStartY = Math.max(this.minY - sizeExtension, this.chunkY << 4);
+            cStartX = Math.max(this.minX - sizeExtension, this.chunkX << 4);
+            cStartY = Math.max(this.minY - sizeExtension, this.chunkY << 4);
             this.cStartZ = Math.max(this.minZ - sizeExtension, this.chunkZ << 4);
-            this.cX = this.cStartX;
-            this.cY = cStartY;
-            this.cZ = this.cStartZ;
-
-            this.cTotalSize = (this.cEndX - this.cStartX + 1) * (cEndY - cStartY + 1) * (this.cEndZ - this.cStartZ + 1);
             //skip completely empty section iterations
-        } while(this.cTotalSize == 0);
-        this.cIterated = 0;
+        } while (cStartX > cEndX || cStartY > this.cEndY || this.cStartZ > this.cEndZ);
+
+        this.cY = cStartY;
+        this.cZ = this.cStartZ;
+        this.cRowRange = ((1L << (cEndX - cStartX + 1)) - 1) << (cStartX & 15);
+
+        if (ChunkSectionCollisionMasks.ENABLED) {
+            ChunkSectionCollisionMasks masks = (ChunkSectionCollisionMasks) this.cachedChunkSection;
+
+            this.cCollidableMask = masks.getCollidableMask();
+            this.cFullCubeMask = masks.getFullCubeMask();
+        }
 
         return true;
     }
 
+    /**
+     * Moves on to the next row of blocks along the x-axis, and finds the blocks in it which need to be looked at.
+     *
+     * @return False if there are no rows left to iterate
+     */
+    private boolean nextRow() {
+        //The iteration order within a chunk section is chosen so that it causes a mostly linear array access in the storage.
+        //In net.minecraft.world.chunk.PalettedContainer.toIndex x gets the 4 least significant bits, z the 4 above, and y the 4 even higher ones.
+        //A whole row along the x-axis is therefore stored in 16 consecutive bits of the collision masks.
+        if (this.cachedChunkSection != null && this.cZ < this.cEndZ) {
+            this.cZ++;
+        } else if (this.cachedChunkSection != null && this.cY < this.cEndY) {
+            this.cZ = this.cStartZ;
+            this.cY++;
+        } else if (!this.nextSection()) {
+            return false;
+        }
+
+        long bits = this.cRowRange;
+
+        if (this.cCollidableMask != null) {
+            int index = (this.cY & 15) << 8 | (this.cZ & 15) << 4;
+            int shift = index & 63;
+
+            bits &= this.cCollidableMask[index >>> 6] >>> shift;
+            this.cRowFullCubes = this.cFullCubeMask[index >>> 6] >>> shift;
+        } else {
+            this.cRowFullCubes = 0L;
+        }
+
+        this.cRowBits = bits;
+
+        return true;
+    }
 
     /**
      * Advances the sweep forward until finding a block with a box-colliding VoxelShape
@@ -141,34 +193,20 @@ public class ChunkAwareBlockCollisionSweeper {
      */
     public VoxelShape step() {
         while(true) {
-            if (this.cIterated >= this.cTotalSize) {
-                if (!this.nextSection()) {
+            if (this.cRowBits == 0L) {
+                if (!this.nextRow()) {
                     return null;
                 }
+                continue;
             }
-            this.cIterated++;
 
+            final int bit = Long.numberOfTrailingZeros(this.cRowBits);
+            this.cRowBits &= this.cRowBits - 1;
 
-            final int x = this.cX;
+            final int x = (this.chunkX << 4) + bit;
             final int y = this.cY;
             final int z = this.cZ;
 
-            //The iteration order within a chunk section is chosen so that it causes a mostly linear array access in the storage.
-            //In net.minecraft.world.chunk.PalettedContainer.toIndex x gets the 4 least significant bits, z the 4 above, and y the 4 even higher ones.
-            //Linearly accessing arrays might be slightly faster than other access patterns.
-            //This code hasn't been benchmarked in comparison to another access order.
-            if (this.cX < this.cEndX) {
-                this.cX++;
-            } else if (this.cZ < this.cEndZ) {
-                this.cX = this.cStartX;
-                this.cZ++;
-            } else {
-                this.cX = this.cStartX;
-                this.cZ = this.cStartZ;
-                this.cY++;
-                //stop condition was already checked using this.cIterated at the start of the method
-            }
-
             //using < minX and > maxX instead of <= and >= in vanilla, because minX, maxX are the coordinates
             //of the box that wasn't extended for oversized blocks yet.
             final int edgesHit = this.sectionOversizedBlocks ?
@@ -180,11 +218,24 @@ public class ChunkAwareBlockCollisionSweeper {
                 continue;
             }
 
+            if (((this.cRowFullCubes >>> bit) & 1L) != 0L) {
+                //full cubes neither exceed their voxel nor are moving pistons, so they are only interacted with inside
+                //the box, and their collision can be tested without looking at the block state or shape
+                if (edgesHit == 0 && intersectsFullCube(this.box, x, y, z)) {
+                    return VoxelShapes.fullCube().offset(x, y, z);
+                }
+                continue;
+            }
+
             final BlockState state = this.cachedChunkSection.getBlockState(x & 15, y & 15, z & 15);
 
             if (canInteractWithBlock(state, edgesHit)) {
                 this.pos.set(x, y, z);
-                VoxelShape collisionShape = state.getCollisionShape(this.view, this.pos, this.context);
+                VoxelShape collisionShape = BlockStateTables.getConstantCollisionShape(state);
+
+                if (collisionShape == null) {
+                    collisionShape = state.getCollisionShape(this.view, this.pos, this.context);
+                }
 
                 if (collisionShape != VoxelShapes.empty()) {
                     VoxelShape collidedShape = getCollidedShape(this.box, this.shape, collisionShape, x, y, z);
@@ -196,6 +247,12 @@ public class ChunkAwareBlockCollisionSweeper {
         }
     }
 
+    private static boolean intersectsFullCube(Box box, int x, int y, int z) {
+        return box.minX < x + 1 && box.maxX > x &&
+                box.minY < y + 1 && box.maxY > y &&
+                box.minZ < z + 1 && box.maxZ > z;
+    }
+
     /**
      * This is an artifact from vanilla which is used to avoid testing shapes in the extended portion of a volume
      * unless they are a shape which exceeds their voxel. Pistons must be special-cased here.
@@ -230,19 +287,4 @@ public class ChunkAwareBlockCollisionSweeper {
 
         return null;
     }
-
-    /**
-     * Checks the cached information whether the {@param chunkY} section of the {@param chunk} has oversized blocks.
-     * @return Whether there are any oversized blocks in the chunk section.
-     */
-    private static boolean hasChunkSectionOversizedBlocks(Chunk chunk, int chunkY) {
-        if (OVERSIZED_BLOCK_COUNTING_ENABLED) {
-            ChunkSection section = chunk.getSectionArray()[chunkY];
-            return section != null && ((OversizedBlocksCounter)section).hasOversizedBlocks();
-        }
-        return true; //like vanilla, assume that a chunk section has oversized blocks, when the section mixin isn't loaded
-    }
-    public interface OversizedBlocksCounter {
-        boolean hasOversizedBlocks();
-    }
 }
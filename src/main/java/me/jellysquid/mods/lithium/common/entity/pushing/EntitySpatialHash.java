@@ -0,0 +1,213 @@
+package me.jellysquid.mods.lithium.common.entity.pushing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.boss.dragon.EnderDragonEntity;
+import net.minecraft.entity.boss.dragon.EnderDragonPart;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A spatial hash of all entities in a world, using cells which are much smaller than the chunk sections vanilla sorts
+ * entities into. Entity pushing queries a box around every living entity each tick, and in dense animal pens nearly
+ * every entity of the pen is inside the same few chunk sections, making each query scan the entire pen. With small
+ * cells, a query only has to look at the entities which are actually close to the queried box.
+ *
+ * The hash is updated as soon as the bounding box of an entity changes, so queries always see the current positions
+ * of all entities, just like queries through the chunk sections would.
+ */
+public class EntitySpatialHash {
+    // Cells are 2x2x2 blocks, which is about the size of most mobs
+    private static final int CELL_SHIFT = 1;
+
+    // Entities which would need to be stored in more cells than this are checked by every query instead
+    private static final int MAX_CELLS_PER_ENTITY = 64;
+
+    private final Long2ObjectOpenHashMap<ReferenceArrayList<Entity>> cells = new Long2ObjectOpenHashMap<>();
+    private final ReferenceArrayList<Entity> oversizedEntities = new ReferenceArrayList<>();
+
+    /**
+     * Called when an entity is added to the world.
+     */
+    public void add(Entity entity) {
+        SpatialHashedEntity hashed = (SpatialHashedEntity) entity;
+
+        if (hashed.getSpatialHash() != null) {
+            hashed.getSpatialHash().remove(entity);
+        }
+
+        hashed.setSpatialHash(this);
+
+        int[] range = hashed.getSpatialHashCells();
+        setRange(range, entity.getBoundingBox());
+
+        this.insert(entity, range);
+    }
+
+    /**
+     * Called when an entity is removed from the world.
+     */
+    public void remove(Entity entity) {
+        SpatialHashedEntity hashed = (SpatialHashedEntity) entity;
+
+        if (hashed.getSpatialHash() != this) {
+            return;
+        }
+
+        this.erase(entity, hashed.getSpatialHashCells());
+
+        hashed.setSpatialHash(null);
+    }
+
+    /**
+     * Called when the bounding box of an entity stored in this hash has changed.
+     */
+    public void onBoundsChanged(Entity entity, Box box) {
+        int[] range = ((SpatialHashedEntity) entity).getSpatialHashCells();
+
+        int minX = toCell(box.minX);
+        int minY = toCell(box.minY);
+        int minZ = toCell(box.minZ);
+        int maxX = toCell(box.maxX);
+        int maxY = toCell(box.maxY);
+        int maxZ = toCell(box.maxZ);
+
+        // Most movements stay within the same cells
+        if (range[0] == minX && range[1] == minY && range[2] == minZ && range[3] == maxX && range[4] == maxY && range[5] == maxZ) {
+            return;
+        }
+
+        this.erase(entity, range);
+
+        range[0] = minX;
+        range[1] = minY;
+        range[2] = minZ;
+        range[3] = maxX;
+        range[4] = maxY;
+        range[5] = maxZ;
+
+        this.insert(entity, range);
+    }
+
+    /**
+     * Equivalent to {@link net.minecraft.world.World#getOtherEntities(Entity, Box, Predicate)}, except that the
+     * entities are not returned in the same order.
+     */
+    public List<Entity> getOtherEntities(Entity except, Box box, Predicate<? super Entity> predicate) {
+        List<Entity> entities = new ArrayList<>();
+
+        int minX = toCell(box.minX);
+        int minY = toCell(box.minY);
+        int minZ = toCell(box.minZ);
+        int maxX = toCell(box.maxX);
+        int maxY = toCell(box.maxY);
+        int maxZ = toCell(box.maxZ);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    ReferenceArrayList<Entity> cell = this.cells.get(BlockPos.asLong(x, y, z));
+
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (int i = 0, size = cell.size(); i < size; i++) {
+                        Entity entity = cell.get(i);
+                        int[] range = ((SpatialHashedEntity) entity).getSpatialHashCells();
+
+                        // An entity stored in several cells is only considered in the first cell shared with the query
+                        if (Math.max(range[0], minX) != x || Math.max(range[1], minY) != y || Math.max(range[2], minZ) != z) {
+                            continue;
+                        }
+
+                        collect(entity, except, box, predicate, entities);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0, size = this.oversizedEntities.size(); i < size; i++) {
+            collect(this.oversizedEntities.get(i), except, box, predicate, entities);
+        }
+
+        return entities;
+    }
+
+    // [VanillaCopy] WorldChunk#collectOtherEntities(Entity, Box, List, Predicate)
+    private static void collect(Entity entity, Entity except, Box box, Predicate<? super Entity> predicate, List<Entity> entities) {
+        if (entity != except && entity.getBoundingBox().intersects(box)) {
+            if (predicate == null || predicate.test(entity)) {
+                entities.add(entity);
+            }
+
+            if (entity instanceof EnderDragonEntity) {
+                for (EnderDragonPart part : ((EnderDragonEntity) entity).getBodyParts()) {
+                    if (part != except && part.getBoundingBox().intersects(box) && (predicate == null || predicate.test(part))) {
+                        entities.add(part);
+                    }
+                }
+            }
+        }
+    }
+
+    private void insert(Entity entity, int[] range) {
+        if (isOversized(range)) {
+            this.oversizedEntities.add(entity);
+            return;
+        }
+
+        for (int x = range[0]; x <= range[3]; x++) {
+            for (int z = range[2]; z <= range[5]; z++) {
+                for (int y = range[1]; y <= range[4]; y++) {
+                    this.cells.computeIfAbsent(BlockPos.asLong(x, y, z), key -> new ReferenceArrayList<>()).add(entity);
+                }
+            }
+        }
+    }
+
+    private void erase(Entity entity, int[] range) {
+        if (isOversized(range)) {
+            this.oversizedEntities.remove(entity);
+            return;
+        }
+
+        for (int x = range[0]; x <= range[3]; x++) {
+            for (int z = range[2]; z <= range[5]; z++) {
+                for (int y = range[1]; y <= range[4]; y++) {
+                    long key = BlockPos.asLong(x, y, z);
+                    ReferenceArrayList<Entity> cell = this.cells.get(key);
+
+                    if (cell != null && cell.remove(entity) && cell.isEmpty()) {
+                        this.cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isOversized(int[] range) {
+        long count = (long) (range[3] - range[0] + 1) * (long) (range[4] - range[1] + 1) * (long) (range[5] - range[2] + 1);
+
+        return count > MAX_CELLS_PER_ENTITY;
+    }
+
+    private static void setRange(int[] range, Box box) {
+        range[0] = toCell(box.minX);
+        range[1] = toCell(box.minY);
+        range[2] = toCell(box.minZ);
+        range[3] = toCell(box.maxX);
+        range[4] = toCell(box.maxY);
+        range[5] = toCell(box.maxZ);
+    }
+
+    private static int toCell(double coord) {
+        return MathHelper.floor(coord) >> CELL_SHIFT;
+    }
+}
@@ -0,0 +1,5 @@
+package me.jellysquid.mods.lithium.common.entity.pushing;
+
+public interface EntitySpatialHashProvider {
+    EntitySpatialHash getEntitySpatialHash();
+}
@@ -0,0 +1,15 @@
+package me.jellysquid.mods.lithium.common.entity.pushing;
+
+public interface SpatialHashedEntity {
+    /**
+     * @return The spatial hash this entity is currently stored in, or null if it is not stored in any
+     */
+    EntitySpatialHash getSpatialHash();
+
+    void setSpatialHash(EntitySpatialHash hash);
+
+    /**
+     * @return The range of cells this entity is stored in, as {minX, minY, minZ, maxX, maxY, maxZ}
+     */
+    int[] getSpatialHashCells();
+}
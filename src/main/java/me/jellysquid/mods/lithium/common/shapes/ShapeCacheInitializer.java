@@ -0,0 +1,128 @@
+package me.jellysquid.mods.lithium.common.shapes;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.CustomValue;
+import net.fabricmc.loader.api.metadata.CustomValue.CvType;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Initializes the shape caches of all block states in parallel. Vanilla does this serially for ~17k block states
+ * during bootstrap and again every time tags are reloaded, and nearly all of the time is spent in independent shape
+ * computations for each state.
+ *
+ * <p>
+ * Only the shape code of vanilla blocks is expected to be free of shared mutable state, so the block states of other
+ * namespaces are initialized serially on the calling thread afterwards. This is only a heuristic: blocks registered
+ * under the minecraft namespace by other mods, or vanilla blocks whose shape code is changed by mixins, can't be told
+ * apart from vanilla ones. Mods which know their shape code isn't thread-safe can list block namespaces or ids under
+ * the "lithium:serial_shape_cache" key of their custom metadata, and the parallel pass can be disabled entirely with
+ * the shapes.parallel_shape_cache option.
+ * <p>
+ * If anything goes wrong in the parallel pass, the remaining states are initialized serially as well, which is safe
+ * because initialization can be repeated.
+ */
+public class ShapeCacheInitializer {
+    private static final Logger LOGGER = LogManager.getLogger("Lithium");
+
+    private static final String JSON_KEY_SERIAL_SHAPE_CACHE = "lithium:serial_shape_cache";
+
+    private static final int MIN_PARALLELISM = 2;
+
+    public static void initShapeCaches() {
+        long start = System.nanoTime();
+
+        Set<String> denylist = collectSerialEntries();
+
+        List<BlockState> parallel = new ArrayList<>();
+        List<BlockState> serial = new ArrayList<>();
+
+        for (BlockState state : Block.STATE_IDS) {
+            if (isThreadSafe(state.getBlock(), denylist)) {
+                parallel.add(state);
+            } else {
+                serial.add(state);
+            }
+        }
+
+        int parallelCount = 0;
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        if (pool.getParallelism() >= MIN_PARALLELISM) {
+            try {
+                // Joining the task ensures that all writes made by the workers are visible to this thread
+                pool.submit(() -> parallel.parallelStream().forEach(BlockState::initShapeCache)).join();
+
+                parallelCount = parallel.size();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to initialize block state shape caches in parallel, falling back to serial initialization", e);
+            }
+        }
+
+        if (parallelCount == 0) {
+            serial.addAll(0, parallel);
+        }
+
+        for (BlockState state : serial) {
+            state.initShapeCache();
+        }
+
+        LOGGER.info("Initialized the shape caches of {} block states ({} in parallel) in {}ms",
+                parallelCount + serial.size(), parallelCount, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    private static boolean isThreadSafe(Block block, Set<String> denylist) {
+        Identifier id = Registry.BLOCK.getId(block);
+
+        if (denylist.contains(id.getNamespace()) || denylist.contains(id.toString())) {
+            return false;
+        }
+
+        return id.getNamespace().equals("minecraft");
+    }
+
+    /**
+     * @return The block namespaces and ids which mods have asked to be initialized serially
+     */
+    private static Set<String> collectSerialEntries() {
+        Set<String> entries = new HashSet<>();
+
+        for (ModContainer container : FabricLoader.getInstance().getAllMods()) {
+            ModMetadata meta = container.getMetadata();
+
+            if (!meta.containsCustomValue(JSON_KEY_SERIAL_SHAPE_CACHE)) {
+                continue;
+            }
+
+            CustomValue value = meta.getCustomValue(JSON_KEY_SERIAL_SHAPE_CACHE);
+
+            if (value.getType() != CvType.ARRAY) {
+                LOGGER.warn("Mod '{}' contains an invalid list of serially initialized blocks, ignoring", meta.getId());
+                continue;
+            }
+
+            for (CustomValue entry : value.getAsArray()) {
+                if (entry.getType() == CvType.STRING) {
+                    entries.add(entry.getAsString());
+                } else {
+                    LOGGER.warn("Mod '{}' contains an invalid serially initialized block entry, ignoring", meta.getId());
+                }
+            }
+        }
+
+        return entries;
+    }
+}
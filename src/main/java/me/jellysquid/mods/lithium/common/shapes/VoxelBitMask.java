@@ -0,0 +1,142 @@
+package me.jellysquid.mods.lithium.common.shapes;
+
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.shape.VoxelSet;
+
+/**
+ * A 512-bit mask of the filled voxels of a shape at a resolution of 1/8th of a block. Any union of boxes aligned to
+ * 1/2, 1/4 or 1/8 of a block (such as stairs, walls, fences or hoppers) can be represented exactly, which allows
+ * testing such a shape for intersection with a box using a few word operations instead of merging point lists.
+ * <p>
+ * The mask is stored as 8 longs, one for each x-slice of the block, with each long holding 8 rows of 8 bits along the
+ * z-axis, stacked along the y-axis.
+ */
+public class VoxelBitMask {
+    private static final int RESOLUTION = 8;
+
+    private final long[] slices;
+
+    private VoxelBitMask(long[] slices) {
+        this.slices = slices;
+    }
+
+    /**
+     * Creates the mask for a shape with the given voxels, whose points are evenly spaced across one block.
+     *
+     * @return The mask, or null if the voxel set's resolution doesn't fit into a 1/8th grid
+     */
+    public static VoxelBitMask create(VoxelSet voxels) {
+        int sizeX = voxels.getXSize();
+        int sizeY = voxels.getYSize();
+        int sizeZ = voxels.getZSize();
+
+        if (!isSupportedSize(sizeX) || !isSupportedSize(sizeY) || !isSupportedSize(sizeZ)) {
+            return null;
+        }
+
+        int scaleX = RESOLUTION / sizeX;
+        int scaleY = RESOLUTION / sizeY;
+        int scaleZ = RESOLUTION / sizeZ;
+
+        long[] slices = new long[RESOLUTION];
+
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    if (!voxels.contains(x, y, z)) {
+                        continue;
+                    }
+
+                    long zBits = rangeBits(z * scaleZ, (z + 1) * scaleZ - 1);
+
+                    for (int cx = x * scaleX; cx < (x + 1) * scaleX; cx++) {
+                        for (int cy = y * scaleY; cy < (y + 1) * scaleY; cy++) {
+                            slices[cx] |= zBits << (cy * RESOLUTION);
+                        }
+                    }
+                }
+            }
+        }
+
+        return new VoxelBitMask(slices);
+    }
+
+    private static boolean isSupportedSize(int size) {
+        return size > 0 && size <= RESOLUTION && (size & (size - 1)) == 0;
+    }
+
+    /**
+     * Checks whether the box intersects the filled part of this mask translated to the given coordinates, with the
+     * same semantics as {@link VoxelShapeCaster#intersects(Box, double, double, double)}.
+     */
+    public boolean intersects(Box box, double x, double y, double z) {
+        int minX = minCell(box.minX - x);
+        int maxX = maxCell(box.maxX - x);
+
+        if (minX > maxX) {
+            return false;
+        }
+
+        int minY = minCell(box.minY - y);
+        int maxY = maxCell(box.maxY - y);
+
+        if (minY > maxY) {
+            return false;
+        }
+
+        int minZ = minCell(box.minZ - z);
+        int maxZ = maxCell(box.maxZ - z);
+
+        if (minZ > maxZ) {
+            return false;
+        }
+
+        // Replicate the z-range into every row, then clip to the rows of the y-range
+        long query = (rangeBits(minZ, maxZ) * 0x0101010101010101L) & rangeBits(minY * RESOLUTION, maxY * RESOLUTION + RESOLUTION - 1);
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            if ((this.slices[cx] & query) != 0L) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return True if no voxel is filled
+     */
+    public boolean isEmpty() {
+        for (long slice : this.slices) {
+            if (slice != 0L) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The first cell whose open interval overlaps an interval starting at the given coordinate
+     */
+    private static int minCell(double min) {
+        return Math.max(0, MathHelper.floor(min * RESOLUTION));
+    }
+
+    /**
+     * @return The last cell whose open interval overlaps an interval ending at the given coordinate
+     */
+    private static int maxCell(double max) {
+        return Math.min(RESOLUTION - 1, MathHelper.ceil(max * RESOLUTION) - 1);
+    }
+
+    /**
+     * @return A word with the bits from min to max (inclusive) set
+     */
+    private static long rangeBits(int min, int max) {
+        long upper = max >= 63 ? -1L : (1L << (max + 1)) - 1L;
+
+        return upper & -(1L << min);
+    }
+}
@@ -0,0 +1,25 @@
+package me.jellysquid.mods.lithium.common.shapes.cache;
+
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+
+/**
+ * The shared caches for the results of combining shapes in {@link VoxelShapes}. Shapes are immutable, so the same
+ * combined shape can safely be handed out to every caller.
+ */
+public class VoxelShapeCaches {
+    /**
+     * Results of {@link VoxelShapes#matchesAnywhere(VoxelShape, VoxelShape, net.minecraft.util.function.BooleanBiFunction)}.
+     */
+    public static final VoxelShapePairCacheTable<Boolean> MATCHES_ANYWHERE = new VoxelShapePairCacheTable<>(1024);
+
+    /**
+     * Results of {@link VoxelShapes#combine(VoxelShape, VoxelShape, net.minecraft.util.function.BooleanBiFunction)}.
+     */
+    public static final VoxelShapePairCacheTable<VoxelShape> COMBINE = new VoxelShapePairCacheTable<>(512);
+
+    /**
+     * Results of {@link VoxelShapes#combineAndSimplify(VoxelShape, VoxelShape, net.minecraft.util.function.BooleanBiFunction)}.
+     */
+    public static final VoxelShapePairCacheTable<VoxelShape> COMBINE_AND_SIMPLIFY = new VoxelShapePairCacheTable<>(512);
+}
@@ -0,0 +1,95 @@
+package me.jellysquid.mods.lithium.common.shapes.cache;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.shape.VoxelShape;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lossy hashtable which stores the result of an operation on a pair of shapes, keyed by the identity of both shapes
+ * and of the {@link BooleanBiFunction} combining them. See {@link me.jellysquid.mods.lithium.common.util.collections.Object2BooleanCacheTable}
+ * for the general design.
+ *
+ * Many of the shapes passed to these operations are created for a single use (such as the box of a moving entity), and
+ * will never be seen again. To avoid replacing useful entries with such shapes, a pair is only admitted into the table
+ * once it has been seen at least twice, which is tracked through a table of key hashes next to the entries.
+ *
+ * This implementation is safe to use from multiple threads
+ */
+public final class VoxelShapePairCacheTable<V> {
+    private final int mask;
+
+    private final Node<V>[] nodes;
+    private final int[] seen;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public VoxelShapePairCacheTable(int capacity) {
+        int size = MathHelper.smallestEncompassingPowerOfTwo(capacity);
+
+        this.mask = size - 1;
+        this.nodes = (Node<V>[]) new Node[size];
+        this.seen = new int[size];
+    }
+
+    private static int hash(VoxelShape a, VoxelShape b, BooleanBiFunction function) {
+        return HashCommon.mix((System.identityHashCode(a) * 31 + System.identityHashCode(b)) * 31 + System.identityHashCode(function));
+    }
+
+    /**
+     * @return The cached result of the operation, or null if it is not cached
+     */
+    public V get(VoxelShape a, VoxelShape b, BooleanBiFunction function) {
+        Node<V> node = this.nodes[hash(a, b, function) & this.mask];
+
+        if (node != null && node.a == a && node.b == b && node.function == function) {
+            this.hits.increment();
+
+            return node.value;
+        }
+
+        this.misses.increment();
+
+        return null;
+    }
+
+    /**
+     * Stores the result of an operation, if the same operation has been requested before.
+     */
+    public void put(VoxelShape a, VoxelShape b, BooleanBiFunction function, V value) {
+        int hash = hash(a, b, function);
+        int idx = hash & this.mask;
+
+        // Hash values of 0 are never admitted, as they can't be told apart from empty slots
+        if (hash != 0 && this.seen[idx] == hash) {
+            this.nodes[idx] = new Node<>(a, b, function, value);
+        } else {
+            this.seen[idx] = hash;
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    static class Node<V> {
+        final VoxelShape a, b;
+        final BooleanBiFunction function;
+        final V value;
+
+        Node(VoxelShape a, VoxelShape b, BooleanBiFunction function, V value) {
+            this.a = a;
+            this.b = b;
+            this.function = function;
+            this.value = value;
+        }
+    }
+}
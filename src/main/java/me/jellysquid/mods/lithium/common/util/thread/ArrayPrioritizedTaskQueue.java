@@ -1,42 +1,35 @@
 package me.jellysquid.mods.lithium.common.util.thread;
 
-import com.google.common.collect.Queues;
 import net.minecraft.util.thread.TaskQueue;
 
-import java.util.Queue;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * A much, much faster implementation of TaskQueue.Prioritized which avoids excessive overhead when checking for
  * messages in the queue by avoiding usages of the Stream API. The improvement from this change can be most noticeably
  * seen when enqueueing light updates which occur during block updates.
+ * <p>
+ * Each priority level is backed by a {@link MpscSegmentedArrayQueue}, so enqueueing a task neither allocates a linked
+ * node nor updates a counter shared between all producers. The depth and latency of each priority level are exposed
+ * for diagnostics.
  */
 public class ArrayPrioritizedTaskQueue implements TaskQueue<TaskQueue.PrioritizedTask, Runnable> {
     // A simple array type is used to avoid needing to allocate an iterator to work on the queue
-    private final Queue<Runnable>[] queues;
-
-    // Instead of iterating over every queue to determine if work is present, we simply store a counter
-    private final AtomicInteger size;
+    private final MpscSegmentedArrayQueue<Runnable>[] queues;
 
     @SuppressWarnings("unchecked")
     public ArrayPrioritizedTaskQueue(int count) {
-        this.queues = new Queue[count];
+        this.queues = new MpscSegmentedArrayQueue[count];
 
         for (int i = 0; i < count; i++) {
-            this.queues[i] = Queues.newConcurrentLinkedQueue();
+            this.queues[i] = new MpscSegmentedArrayQueue<>();
         }
-
-        this.size = new AtomicInteger(0);
     }
 
     @Override
     public Runnable poll() {
-        for (Queue<Runnable> queue : this.queues) {
+        for (MpscSegmentedArrayQueue<Runnable> queue : this.queues) {
             Runnable task = queue.poll();
 
             if (task != null) {
-                this.size.decrementAndGet();
-
                 return task;
             }
         }
@@ -46,16 +39,51 @@ public class ArrayPrioritizedTaskQueue implements TaskQueue<TaskQueue.Prioritize
 
     @Override
     public boolean add(TaskQueue.PrioritizedTask task) {
-        this.size.incrementAndGet();
-
-        Queue<Runnable> queue = this.queues[task.getPriority()];
-        queue.add(task);
+        this.queues[task.getPriority()].offer(task);
 
         return true;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.size.get() <= 0;
+        for (MpscSegmentedArrayQueue<Runnable> queue : this.queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int getPriorityCount() {
+        return this.queues.length;
+    }
+
+    /**
+     * @return The number of tasks waiting at the given priority level
+     */
+    public int getQueueDepth(int priority) {
+        return this.queues[priority].size();
+    }
+
+    /**
+     * @return The total number of tasks which have been run at the given priority level
+     */
+    public long getTotalProcessed(int priority) {
+        return this.queues[priority].getTotalPolled();
+    }
+
+    /**
+     * @return The average time in nanoseconds which tasks at the given priority level waited before being run
+     */
+    public double getAverageLatencyNanos(int priority) {
+        return this.queues[priority].getAverageLatencyNanos();
+    }
+
+    /**
+     * @return The longest time in nanoseconds which a task at the given priority level waited before being run
+     */
+    public long getMaxLatencyNanos(int priority) {
+        return this.queues[priority].getMaxLatencyNanos();
     }
 }
@@ -0,0 +1,182 @@
+package me.jellysquid.mods.lithium.common.util.thread;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A multi-producer, single-consumer FIFO queue backed by fixed-size array segments. Producers claim a slot with a
+ * single atomic increment of a padded sequence counter and publish their element with an ordered write, so enqueueing
+ * does not allocate anything except for one new segment every {@link #SEGMENT_SIZE} elements when the current segment
+ * overflows. Segments are chained instead of being recycled, which avoids any ABA issues with slow producers still
+ * holding a reference to an old segment.
+ * <p>
+ * Each slot also records the time its element was enqueued, which the consumer uses to track how long elements wait
+ * in the queue.
+ * <p>
+ * Only a single thread may call {@link #poll()} at a time. All other methods are safe to call from any thread.
+ */
+public class MpscSegmentedArrayQueue<E> {
+    private static final int SEGMENT_SIZE = 1024;
+
+    private final PaddedAtomicLong producerIndex = new PaddedAtomicLong(0L);
+    private final PaddedAtomicLong consumerIndex = new PaddedAtomicLong(0L);
+
+    private volatile Segment<E> producerSegment;
+    private volatile Segment<E> consumerSegment;
+
+    // Written only by the consumer thread, read by anyone collecting metrics
+    private volatile long totalPolled;
+    private volatile long totalLatency;
+    private volatile long maxLatency;
+
+    public MpscSegmentedArrayQueue() {
+        Segment<E> segment = new Segment<>(0L);
+
+        this.producerSegment = segment;
+        this.consumerSegment = segment;
+    }
+
+    public void offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+
+        long index = this.producerIndex.getAndIncrement();
+
+        Segment<E> segment = this.producerSegment;
+
+        // Another producer may have moved the hint past our slot. The consumer can never move beyond a slot which has
+        // not been written yet, so the consumer's segment is always at or before ours.
+        if (segment.start > index) {
+            segment = this.consumerSegment;
+        }
+
+        while (index >= segment.start + SEGMENT_SIZE) {
+            segment = segment.getOrCreateNext();
+        }
+
+        int offset = (int) (index - segment.start);
+
+        segment.timestamps[offset] = System.nanoTime();
+        segment.elements.lazySet(offset, element);
+
+        if (segment.start > this.producerSegment.start) {
+            this.producerSegment = segment;
+        }
+    }
+
+    /**
+     * Removes the element at the head of this queue. This may return null while a producer is still in the middle of
+     * publishing the head element; the producer is expected to signal the consumer again after its offer completes.
+     *
+     * @return The element at the head of the queue, or null if it is empty
+     */
+    public E poll() {
+        long index = this.consumerIndex.get();
+
+        Segment<E> segment = this.consumerSegment;
+        int offset = (int) (index - segment.start);
+
+        if (offset == SEGMENT_SIZE) {
+            Segment<E> next = segment.next.get();
+
+            if (next == null) {
+                return null;
+            }
+
+            this.consumerSegment = segment = next;
+            offset = 0;
+        }
+
+        E element = segment.elements.get(offset);
+
+        if (element == null) {
+            return null;
+        }
+
+        segment.elements.lazySet(offset, null);
+
+        long latency = System.nanoTime() - segment.timestamps[offset];
+
+        this.totalPolled++;
+        this.totalLatency += latency;
+
+        if (latency > this.maxLatency) {
+            this.maxLatency = latency;
+        }
+
+        this.consumerIndex.lazySet(index + 1);
+
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return this.size() <= 0;
+    }
+
+    /**
+     * @return The number of elements which have been enqueued but not yet polled. This is only a snapshot which may be
+     * out of date by the time it is returned if other threads are accessing the queue.
+     */
+    public int size() {
+        // Read the consumer index first so that the result can never be negative
+        long consumed = this.consumerIndex.get();
+        long produced = this.producerIndex.get();
+
+        return (int) Math.min(produced - consumed, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The total number of elements which have been polled from this queue
+     */
+    public long getTotalPolled() {
+        return this.totalPolled;
+    }
+
+    /**
+     * @return The average time in nanoseconds which polled elements spent in this queue
+     */
+    public double getAverageLatencyNanos() {
+        long polled = this.totalPolled;
+
+        return polled == 0 ? 0.0D : (double) this.totalLatency / polled;
+    }
+
+    /**
+     * @return The longest time in nanoseconds which a polled element spent in this queue
+     */
+    public long getMaxLatencyNanos() {
+        return this.maxLatency;
+    }
+
+    private static class Segment<E> {
+        final long start;
+
+        final AtomicReferenceArray<E> elements = new AtomicReferenceArray<>(SEGMENT_SIZE);
+
+        // Published to the consumer through the ordered write of the element in the same slot
+        final long[] timestamps = new long[SEGMENT_SIZE];
+
+        final AtomicReference<Segment<E>> next = new AtomicReference<>();
+
+        Segment(long start) {
+            this.start = start;
+        }
+
+        Segment<E> getOrCreateNext() {
+            Segment<E> next = this.next.get();
+
+            if (next == null) {
+                Segment<E> created = new Segment<>(this.start + SEGMENT_SIZE);
+
+                if (this.next.compareAndSet(null, created)) {
+                    next = created;
+                } else {
+                    next = this.next.get();
+                }
+            }
+
+            return next;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package me.jellysquid.mods.lithium.common.util.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link AtomicLong} which is padded to occupy its own cache line, preventing false sharing with counters which
+ * are written by other threads.
+ */
+@SuppressWarnings("unused")
+public class PaddedAtomicLong extends AtomicLong {
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    public PaddedAtomicLong(long initialValue) {
+        super(initialValue);
+    }
+}
@@ -0,0 +1,8 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface BlockStateSummary {
+    /**
+     * @return The constant {@link BlockSummaryFlags} of this block state
+     */
+    int getSummaryFlags();
+}
@@ -0,0 +1,123 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import me.jellysquid.mods.lithium.common.block.BlockShapeHelper;
+import net.minecraft.block.AbstractFireBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.EmptyBlockView;
+import net.minecraft.world.poi.PointOfInterestType;
+
+/**
+ * Describes the classes of blocks which are tracked per chunk section. Each block state is assigned a constant set of
+ * these flags, and each chunk section keeps a count of the blocks for each flag, allowing code which only cares about a
+ * single class of blocks to skip over entire sections with one bit test.
+ */
+public class BlockSummaryFlags {
+    /**
+     * The block is not air. Sections without this flag contain nothing but air.
+     */
+    public static final int NON_AIR = 1;
+
+    /**
+     * The block contains a non-empty fluid state.
+     */
+    public static final int FLUIDS = 1 << 1;
+
+    /**
+     * The block may have a non-empty collision shape.
+     */
+    public static final int COLLIDABLE = 1 << 2;
+
+    /**
+     * The block may have a collision shape which is not empty and not a full cube.
+     */
+    public static final int NON_FULL_COLLISION = 1 << 3;
+
+    /**
+     * The block's shape exceeds the bounds of its voxel, see {@link BlockState#exceedsCube()}.
+     */
+    public static final int OVERSIZED = 1 << 4;
+
+    /**
+     * The block damages entities which are inside or touching it (fire, lava, cactus and the like).
+     */
+    public static final int DAMAGING = 1 << 5;
+
+    /**
+     * The block receives random ticks.
+     */
+    public static final int RANDOM_TICKS = 1 << 6;
+
+    /**
+     * The block is a point of interest.
+     */
+    public static final int POINTS_OF_INTEREST = 1 << 7;
+
+    /**
+     * The number of flags defined above.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * Calculates the flags for a block state. The result is constant for any given block state and should be cached.
+     */
+    public static int compute(BlockState state) {
+        int flags = 0;
+
+        if (!state.isAir()) {
+            flags |= NON_AIR;
+        }
+
+        if (!state.getFluidState().isEmpty()) {
+            flags |= FLUIDS;
+        }
+
+        if (state.exceedsCube()) {
+            flags |= OVERSIZED;
+        }
+
+        if (state.hasRandomTicks()) {
+            flags |= RANDOM_TICKS;
+        }
+
+        Block block = state.getBlock();
+
+        // Blocks with dynamic or context-dependent shapes must be assumed to have any kind of shape
+        if (BlockShapeHelper.hasContextDependentCollisionShape(state)) {
+            flags |= COLLIDABLE | NON_FULL_COLLISION;
+        } else {
+            VoxelShape shape = state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN);
+
+            if (!shape.isEmpty()) {
+                flags |= COLLIDABLE;
+
+                if (!Block.isShapeFullCube(shape)) {
+                    flags |= NON_FULL_COLLISION;
+                }
+            }
+        }
+
+        if (isDamagingBlock(block)) {
+            flags |= DAMAGING;
+        }
+
+        if (PointOfInterestType.from(state).isPresent()) {
+            flags |= POINTS_OF_INTEREST;
+        }
+
+        return flags;
+    }
+
+    /**
+     * Block identity is used here instead of tags, as tags can change when data packs are reloaded, which would leave
+     * the counts of already loaded chunk sections out of date.
+     */
+    private static boolean isDamagingBlock(Block block) {
+        return block instanceof AbstractFireBlock || block == Blocks.LAVA || block == Blocks.MAGMA_BLOCK ||
+                block == Blocks.CACTUS || block == Blocks.SWEET_BERRY_BUSH || block == Blocks.WITHER_ROSE ||
+                block == Blocks.CAMPFIRE || block == Blocks.SOUL_CAMPFIRE;
+    }
+}
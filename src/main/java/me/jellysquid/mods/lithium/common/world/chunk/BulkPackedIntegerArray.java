@@ -0,0 +1,16 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import net.minecraft.util.collection.PackedIntegerArray;
+
+/**
+ * Bulk operations over a {@link PackedIntegerArray} which work on whole words of the backing storage at a time instead
+ * of unpacking and re-packing each element individually.
+ */
+public interface BulkPackedIntegerArray {
+    /**
+     * Sets every element of this array to the given value.
+     *
+     * @param value The value to store in every element, which must fit within the element width of this array
+     */
+    void fill(int value);
+}
@@ -0,0 +1,56 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import me.jellysquid.mods.lithium.common.block.BlockShapeHelper;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.EmptyBlockView;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * Bit masks of the blocks in a chunk section which collision code needs to look at. Each mask holds one bit for every
+ * block in the section, at the index used by the section's block storage ({@code y << 8 | z << 4 | x}), so that one row
+ * of 16 blocks along the x-axis can be extracted from a single long.
+ */
+public interface ChunkSectionCollisionMasks {
+    boolean ENABLED = ChunkSectionCollisionMasks.class.isAssignableFrom(ChunkSection.class);
+
+    /**
+     * @return A mask with a bit set for every block which may have a non-empty collision shape. The mask is built
+     * lazily and must not be modified.
+     */
+    long[] getCollidableMask();
+
+    /**
+     * @return A mask with a bit set for every block which always has the full cube as its collision shape. The mask is
+     * built lazily and must not be modified.
+     */
+    long[] getFullCubeMask();
+
+    /**
+     * @return True if the block state's collision shape is always exactly {@link VoxelShapes#fullCube()}, regardless
+     * of its position and the entity colliding with it. Blocks with a context-dependent collision shape never have
+     * the {@link BlockSummaryFlags#NON_FULL_COLLISION} flag cleared, and are therefore never treated as full cubes.
+     */
+    static boolean hasFullCubeCollision(BlockState state) {
+        int flags = ((BlockStateSummary) state).getSummaryFlags();
+
+        if ((flags & (BlockSummaryFlags.COLLIDABLE | BlockSummaryFlags.NON_FULL_COLLISION)) != BlockSummaryFlags.COLLIDABLE) {
+            return false;
+        }
+
+        // A full cube shape built from several parts may still have inner faces, which matter to entities inside it
+        return state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN) == VoxelShapes.fullCube();
+    }
+
+    /**
+     * Blocks whose collision shape depends on the colliding entity (such as lava, which striders can walk on) are
+     * always considered collidable, even if their shape is empty for most entities. See
+     * {@link BlockShapeHelper#hasContextDependentCollisionShape(BlockState)}.
+     *
+     * @return True if the block state may have a non-empty collision shape for any entity
+     */
+    static boolean isCollidable(BlockState state) {
+        return (((BlockStateSummary) state).getSummaryFlags() & BlockSummaryFlags.COLLIDABLE) != 0;
+    }
+}
@@ -0,0 +1,74 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+public interface ChunkSectionSummary {
+    boolean ENABLED = ChunkSectionSummary.class.isAssignableFrom(ChunkSection.class);
+
+    /**
+     * @return The union of the {@link BlockSummaryFlags} of all blocks in this section
+     */
+    int getSummaryFlags();
+
+    /**
+     * Returns the {@link BlockSummaryFlags} of a chunk section. If the summaries are not being tracked (because the patch
+     * is disabled), this conservatively returns all flags for any non-empty section.
+     *
+     * @return The union of the flags of all blocks in the section, or 0 if the section is empty
+     */
+    static int getFlags(ChunkSection section) {
+        if (ChunkSection.isEmpty(section)) {
+            return 0;
+        }
+
+        if (ENABLED) {
+            return ((ChunkSectionSummary) section).getSummaryFlags();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks whether a chunk section may contain any block with one of the given {@link BlockSummaryFlags}. If the
+     * summaries are not being tracked (because the patch is disabled), this conservatively returns true for any
+     * non-empty section.
+     *
+     * @return False if the section definitely contains no block with any of the given flags, otherwise true
+     */
+    static boolean hasAny(ChunkSection section, int flags) {
+        return (getFlags(section) & flags) != 0;
+    }
+
+    /**
+     * Checks whether any chunk section intersecting the given block range may contain a block with one of the given
+     * {@link BlockSummaryFlags}. All chunks in the range must already be loaded. The bounds are inclusive.
+     *
+     * @return False if the area definitely contains no block with any of the given flags, otherwise true
+     */
+    static boolean hasAnyInArea(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int flags) {
+        if (maxY < 0 || minY > 255) {
+            return false;
+        }
+
+        int minSectionY = MathHelper.clamp(minY >> 4, 0, 15);
+        int maxSectionY = MathHelper.clamp(maxY >> 4, 0, 15);
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                WorldChunk chunk = world.getChunk(chunkX, chunkZ);
+                ChunkSection[] sections = chunk.getSectionArray();
+
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    if (hasAny(sections[sectionY], flags)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+}
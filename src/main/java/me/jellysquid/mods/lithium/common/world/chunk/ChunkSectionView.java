@@ -0,0 +1,12 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+/**
+ * Implemented by block views which can expose the block summaries of the chunk sections backing them.
+ */
+public interface ChunkSectionView {
+    /**
+     * @return The {@link BlockSummaryFlags} of the chunk section at the given section coordinates (see
+     * {@link ChunkSectionSummary#getFlags(net.minecraft.world.chunk.ChunkSection)})
+     */
+    int getSectionSummaryFlags(int sectionX, int sectionY, int sectionZ);
+}
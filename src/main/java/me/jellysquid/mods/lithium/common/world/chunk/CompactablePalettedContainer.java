@@ -0,0 +1,12 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface CompactablePalettedContainer {
+    /**
+     * Re-packs the container's data array using the smallest palette which can hold all of the values still present
+     * in it. Palettes only ever grow while blocks are being placed, so containers which once held many different
+     * values keep their wide data arrays around long after those values have been removed.
+     *
+     * @return True if the container was re-packed into a smaller data array, otherwise false
+     */
+    boolean compact();
+}
@@ -0,0 +1,18 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface IdleCompactableChunk {
+    /**
+     * @return The world time at which a block in this chunk was last modified
+     */
+    long getLastModifiedTime();
+
+    /**
+     * @return True if the chunk has been modified since it was last compacted, otherwise false
+     */
+    boolean needsCompaction();
+
+    /**
+     * Marks this chunk as compacted. Any further block modification will clear this state again.
+     */
+    void markCompacted();
+}
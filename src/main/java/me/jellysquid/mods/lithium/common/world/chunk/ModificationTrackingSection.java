@@ -0,0 +1,12 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import net.minecraft.world.chunk.ChunkSection;
+
+public interface ModificationTrackingSection {
+    boolean ENABLED = ModificationTrackingSection.class.isAssignableFrom(ChunkSection.class);
+
+    /**
+     * @return A counter which changes every time a block in this chunk section is changed
+     */
+    int getModificationCount();
+}
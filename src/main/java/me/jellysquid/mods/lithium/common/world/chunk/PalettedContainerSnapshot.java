@@ -0,0 +1,31 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.world.chunk.Palette;
+
+/**
+ * An immutable view of the contents of a {@link net.minecraft.world.chunk.PalettedContainer} at the time it was taken,
+ * which can be read from any thread.
+ *
+ * The snapshot shares the data array of the container, which will copy the array before it is next modified. The
+ * palette is shared as-is, as palettes only ever grow by appending entries, which leaves the indices referenced by the
+ * snapshot's data array intact.
+ */
+public class PalettedContainerSnapshot<T> {
+    private final Palette<T> palette;
+    private final PackedIntegerArray data;
+    private final T defaultValue;
+
+    public PalettedContainerSnapshot(Palette<T> palette, PackedIntegerArray data, T defaultValue) {
+        this.palette = palette;
+        this.data = data;
+        this.defaultValue = defaultValue;
+    }
+
+    // [VanillaCopy] PalettedContainer#get
+    public T get(int x, int y, int z) {
+        T value = this.palette.getByIndex(this.data.get(y << 8 | z << 4 | x));
+
+        return value == null ? this.defaultValue : value;
+    }
+}
@@ -0,0 +1,128 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.List;
+
+/**
+ * Chooses which of several chunks with the same scheduling level should be processed first, based on the position
+ * and movement direction of the nearest player. Chunks with the same level lie on a ring around the player, and a
+ * player travelling quickly (e.g. with an elytra) needs the chunks in front of them long before the ones behind.
+ * <p>
+ * Player movement is published by the server thread once per tick as an immutable snapshot, which is then read by the
+ * chunk task sorter's thread.
+ */
+public class PlayerMovementChunkPrioritizer {
+    /**
+     * The maximum number of queued chunks which will be considered for each poll, bounding the cost of a poll for
+     * very large queues.
+     */
+    private static final int MAX_CANDIDATES = 64;
+
+    /**
+     * The squared speed (in chunks per tick) below which a player is considered to be standing still.
+     */
+    private static final double MIN_SPEED_SQ = 1.0E-6D;
+
+    private static final int STRIDE = 4;
+
+    private static final double[] NO_PLAYERS = new double[0];
+
+    /**
+     * Snapshot of all players, with {@link #STRIDE} values each: chunk x, chunk z, velocity x, velocity z, all measured
+     * in chunks (per tick).
+     */
+    private volatile double[] players = NO_PLAYERS;
+
+    /**
+     * Called by the server thread once per tick to publish the current player positions and movement.
+     */
+    public void update(List<ServerPlayerEntity> players) {
+        if (players.isEmpty()) {
+            this.players = NO_PLAYERS;
+
+            return;
+        }
+
+        double[] snapshot = new double[players.size() * STRIDE];
+        int i = 0;
+
+        for (ServerPlayerEntity player : players) {
+            snapshot[i++] = player.getX() / 16.0D;
+            snapshot[i++] = player.getZ() / 16.0D;
+            snapshot[i++] = (player.getX() - player.prevX) / 16.0D;
+            snapshot[i++] = (player.getZ() - player.prevZ) / 16.0D;
+        }
+
+        this.players = snapshot;
+    }
+
+    /**
+     * Selects the chunk which should be processed next from a queue of chunks sharing the same level. If no player is
+     * moving, this returns the first chunk in the queue like vanilla does.
+     *
+     * @return The packed position of the selected chunk
+     */
+    public long selectNext(Long2ObjectLinkedOpenHashMap<?> queue) {
+        long first = queue.firstLongKey();
+        double[] players = this.players;
+
+        if (players.length == 0 || queue.size() == 1) {
+            return first;
+        }
+
+        long best = first;
+        double bestScore = Double.POSITIVE_INFINITY;
+
+        LongIterator it = queue.keySet().iterator();
+
+        for (int i = 0; i < MAX_CANDIDATES && it.hasNext(); i++) {
+            long key = it.nextLong();
+            double score = getScore(players, ChunkPos.getPackedX(key) + 0.5D, ChunkPos.getPackedZ(key) + 0.5D);
+
+            // Ties are resolved in queue order, so chunks near stationary players are processed in FIFO order
+            if (score < bestScore) {
+                bestScore = score;
+                best = key;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return The cosine of the angle between the nearest player's movement and the direction towards the chunk,
+     * negated so that chunks straight ahead receive the lowest score. Chunks near a stationary player score zero.
+     */
+    private static double getScore(double[] players, double chunkX, double chunkZ) {
+        double nearestDistSq = Double.POSITIVE_INFINITY;
+        int nearest = 0;
+
+        for (int i = 0; i < players.length; i += STRIDE) {
+            double dx = chunkX - players[i];
+            double dz = chunkZ - players[i + 1];
+            double distSq = dx * dx + dz * dz;
+
+            if (distSq < nearestDistSq) {
+                nearestDistSq = distSq;
+                nearest = i;
+            }
+        }
+
+        double velX = players[nearest + 2];
+        double velZ = players[nearest + 3];
+        double speedSq = velX * velX + velZ * velZ;
+
+        if (speedSq < MIN_SPEED_SQ || nearestDistSq == 0.0D) {
+            return 0.0D;
+        }
+
+        double dx = chunkX - players[nearest];
+        double dz = chunkZ - players[nearest + 1];
+
+        return -(dx * velX + dz * velZ) / Math.sqrt(nearestDistSq * speedSq);
+    }
+}
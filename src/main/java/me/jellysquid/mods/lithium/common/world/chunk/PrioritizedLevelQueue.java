@@ -0,0 +1,5 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface PrioritizedLevelQueue {
+    void setPrioritizer(PlayerMovementChunkPrioritizer prioritizer);
+}
@@ -0,0 +1,10 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface RandomTickIndexSource {
+    /**
+     * Advances the world's random tick generator exactly like {@link net.minecraft.world.World#getRandomPosInChunk(int,
+     * int, int, int)} does, but returns the random position as a uniformly distributed index in [0, 4096) instead of
+     * allocating a block position.
+     */
+    int nextRandomTickIndex();
+}
@@ -0,0 +1,15 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface RandomTickableSection {
+    /**
+     * @return The number of positions in this section which contain a block or fluid receiving random ticks
+     */
+    int getRandomTickableCount();
+
+    /**
+     * @param slot The slot in the index, which must be less than {@link #getRandomTickableCount()}
+     * @return The position at the given slot in the index of randomly tickable positions, packed in the same order as
+     * {@link net.minecraft.world.chunk.PalettedContainer} indices (y << 8 | z << 4 | x)
+     */
+    int getRandomTickablePosition(int slot);
+}
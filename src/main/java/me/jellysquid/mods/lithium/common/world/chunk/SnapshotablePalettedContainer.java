@@ -0,0 +1,9 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+public interface SnapshotablePalettedContainer<T> {
+    /**
+     * Creates a snapshot of the container's current contents. This must be called from the thread which modifies the
+     * container.
+     */
+    PalettedContainerSnapshot<T> createSnapshot();
+}
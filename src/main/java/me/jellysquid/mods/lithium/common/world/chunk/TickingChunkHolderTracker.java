@@ -0,0 +1,17 @@
+package me.jellysquid.mods.lithium.common.world.chunk;
+
+import net.minecraft.server.world.ChunkHolder;
+
+public interface TickingChunkHolderTracker {
+    /**
+     * Called whenever the level of a chunk holder crosses the ticking threshold in either direction.
+     *
+     * @param ticking True if the holder's level is now at least {@link ChunkHolder.LevelType#TICKING}, otherwise false
+     */
+    void onChunkHolderTickingChanged(ChunkHolder holder, boolean ticking);
+
+    /**
+     * @return All chunk holders whose level is at least {@link ChunkHolder.LevelType#TICKING}
+     */
+    Iterable<ChunkHolder> getTickingChunkHolders();
+}
@@ -0,0 +1,123 @@
+package me.jellysquid.mods.lithium.common.world.explosions;
+
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+/**
+ * Shares the results of block and entity queries between the explosions which happen in a world during a single tick.
+ * TNT cannons often detonate dozens of entities at the same position in the same tick, and unless one of them changes
+ * the world, every one of those explosions sees exactly the same blocks and asks exactly the same questions about them.
+ *
+ * All cached data is discarded as soon as any block in the world changes or the world advances to the next tick, so
+ * the results of every explosion remain identical to vanilla.
+ */
+public class ExplosionCache {
+    private final World world;
+
+    // The world time the cached data belongs to
+    private long time = Long.MIN_VALUE;
+
+    // Whether or not any data has been cached since the last reset
+    private boolean dirty;
+
+    // The ray resistance of each block stepped through by an explosion. Only explosions whose behavior doesn't depend
+    // on the exploding entity may use this.
+    private final Long2FloatOpenHashMap resistances = new Long2FloatOpenHashMap();
+
+    // The origin of the explosion the entity exposures are cached for
+    private double originX, originY, originZ;
+
+    private final Reference2ObjectOpenHashMap<Entity, CachedExposure> exposures = new Reference2ObjectOpenHashMap<>();
+
+    public ExplosionCache(World world) {
+        this.world = world;
+        this.resistances.defaultReturnValue(Float.NaN);
+    }
+
+    /**
+     * Returns the block resistances shared by all explosions in this tick. Missing entries are returned as
+     * {@link Float#NaN}. The returned map must only be modified by adding entries for blocks in their current state.
+     */
+    public Long2FloatOpenHashMap getResistances() {
+        this.validate();
+        this.dirty = true;
+
+        return this.resistances;
+    }
+
+    /**
+     * Returns the exposure of an entity to an explosion at the given origin, as calculated by an earlier explosion at
+     * the same origin, or {@link Float#NaN} if it is not known or the entity has moved since.
+     */
+    public float getExposure(Vec3d origin, Entity entity) {
+        this.validate();
+
+        if (origin.x != this.originX || origin.y != this.originY || origin.z != this.originZ) {
+            this.exposures.clear();
+
+            this.originX = origin.x;
+            this.originY = origin.y;
+            this.originZ = origin.z;
+        }
+
+        CachedExposure cached = this.exposures.get(entity);
+
+        if (cached != null && cached.box.equals(entity.getBoundingBox())) {
+            return cached.exposure;
+        }
+
+        return Float.NaN;
+    }
+
+    /**
+     * Stores the exposure of an entity to the explosion at the origin last passed to
+     * {@link ExplosionCache#getExposure(Vec3d, Entity)}.
+     */
+    public void putExposure(Entity entity, float exposure) {
+        this.exposures.put(entity, new CachedExposure(entity.getBoundingBox(), exposure));
+        this.dirty = true;
+    }
+
+    /**
+     * Discards all cached data. This must be called whenever a block in the world changes.
+     */
+    public void invalidate() {
+        if (this.dirty) {
+            this.reset();
+        }
+    }
+
+    private void validate() {
+        long time = this.world.getTime();
+
+        if (this.time != time) {
+            this.time = time;
+            this.reset();
+        }
+    }
+
+    private void reset() {
+        this.resistances.clear();
+        this.exposures.clear();
+
+        this.originX = Double.NaN;
+        this.originY = Double.NaN;
+        this.originZ = Double.NaN;
+
+        this.dirty = false;
+    }
+
+    private static class CachedExposure {
+        private final Box box;
+        private final float exposure;
+
+        private CachedExposure(Box box, float exposure) {
+            this.box = box;
+            this.exposure = exposure;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package me.jellysquid.mods.lithium.common.world.explosions;
+
+import net.minecraft.world.World;
+
+public interface ExplosionCacheHolder {
+    boolean ENABLED = ExplosionCacheHolder.class.isAssignableFrom(World.class);
+
+    /**
+     * @return The cache shared by all explosions happening in this world
+     */
+    ExplosionCache getExplosionCache();
+}
@@ -0,0 +1,142 @@
+package me.jellysquid.mods.lithium.common.world.explosions;
+
+import net.minecraft.util.math.Box;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The grid of points on an entity's bounding box from which rays are cast towards an explosion to determine how
+ * exposed the entity is. The points only depend on the size of the bounding box, so they are calculated once for
+ * every distinct size and then re-used for every entity of that size.
+ */
+public final class ExposureSamples {
+    // Entities can be resized freely by mods, so don't let the cache grow without bound
+    private static final int MAX_CACHED_SIZES = 256;
+
+    private static final Map<ExposureSamples, ExposureSamples> CACHE = new ConcurrentHashMap<>();
+
+    // Almost every entity hit by an explosion in a TNT cannon has the same size
+    private static volatile ExposureSamples last;
+
+    private final double width, height, depth;
+
+    // The interpolation factors along each axis of the bounding box, as produced by the float loops in vanilla
+    public final float[] stepsX, stepsY, stepsZ;
+
+    // The offsets applied to each sample on the horizontal axes to center the grid on the bounding box
+    public final double offsetX, offsetZ;
+
+    private ExposureSamples(double width, double height, double depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+
+        // [VanillaCopy] Explosion#getExposure(Vec3d, Entity)
+        double stepX = 1.0D / (width * 2.0D + 1.0D);
+        double stepY = 1.0D / (height * 2.0D + 1.0D);
+        double stepZ = 1.0D / (depth * 2.0D + 1.0D);
+
+        this.offsetX = (1.0D - Math.floor(1.0D / stepX) * stepX) / 2.0D;
+        this.offsetZ = (1.0D - Math.floor(1.0D / stepZ) * stepZ) / 2.0D;
+
+        if (stepX < 0.0D || stepY < 0.0D || stepZ < 0.0D) {
+            this.stepsX = this.stepsY = this.stepsZ = null;
+        } else {
+            this.stepsX = createSteps(stepX);
+            this.stepsY = createSteps(stepY);
+            this.stepsZ = createSteps(stepZ);
+        }
+    }
+
+    /**
+     * @return True if the entity can't be reached by any ray, in which case it is not exposed at all
+     */
+    public boolean isEmpty() {
+        return this.stepsX == null;
+    }
+
+    /**
+     * @return The total number of rays cast for an entity of this size
+     */
+    public int getSampleCount() {
+        return this.stepsX.length * this.stepsY.length * this.stepsZ.length;
+    }
+
+    public static ExposureSamples get(Box box) {
+        double width = box.maxX - box.minX;
+        double height = box.maxY - box.minY;
+        double depth = box.maxZ - box.minZ;
+
+        ExposureSamples samples = last;
+
+        if (samples != null && samples.matches(width, height, depth)) {
+            return samples;
+        }
+
+        samples = new ExposureSamples(width, height, depth);
+
+        ExposureSamples existing = CACHE.get(samples);
+
+        if (existing != null) {
+            samples = existing;
+        } else {
+            if (CACHE.size() >= MAX_CACHED_SIZES) {
+                CACHE.clear();
+            }
+
+            CACHE.put(samples, samples);
+        }
+
+        last = samples;
+
+        return samples;
+    }
+
+    private static float[] createSteps(double step) {
+        int count = 0;
+
+        for (float k = 0.0F; k <= 1.0F; k = (float) ((double) k + step)) {
+            count++;
+        }
+
+        float[] steps = new float[count];
+        int i = 0;
+
+        for (float k = 0.0F; k <= 1.0F; k = (float) ((double) k + step)) {
+            steps[i++] = k;
+        }
+
+        return steps;
+    }
+
+    private boolean matches(double width, double height, double depth) {
+        return this.width == width && this.height == height && this.depth == depth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ExposureSamples)) {
+            return false;
+        }
+
+        ExposureSamples other = (ExposureSamples) o;
+
+        return Double.compare(this.width, other.width) == 0 &&
+                Double.compare(this.height, other.height) == 0 &&
+                Double.compare(this.depth, other.depth) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(this.width);
+        result = 31 * result + Double.hashCode(this.height);
+        result = 31 * result + Double.hashCode(this.depth);
+
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package me.jellysquid.mods.lithium.common.world.interests;
+
+import me.jellysquid.mods.lithium.common.util.Collector;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.poi.PointOfInterest;
+
+/**
+ * Tracks the point of interest closest to an origin while points are being collected. The current best distance is
+ * exposed so that callers visiting regions in order of increasing distance can stop as soon as no remaining region
+ * could contain a closer point.
+ * <p>
+ * When several points are equally close, the one which would have been found first by scanning the columns in order of
+ * their index is returned, regardless of the order in which the columns are actually visited. Callers must set the
+ * index of each column before collecting its points.
+ */
+public class NearestPointOfInterestCollector implements Collector<PointOfInterest> {
+    private final BlockPos origin;
+
+    private PointOfInterest nearest;
+    private double nearestDistance;
+    private int nearestColumnIndex;
+
+    private int columnIndex;
+
+    public NearestPointOfInterestCollector(BlockPos origin, double maxDistanceSq) {
+        this.origin = origin;
+        this.nearestDistance = maxDistanceSq;
+    }
+
+    @Override
+    public boolean collect(PointOfInterest point) {
+        double distance = point.getPos().getSquaredDistance(this.origin);
+
+        // The first point within range is always accepted, after which only strictly closer points or equally close
+        // points from a column earlier in the scan order replace it
+        if (distance < this.nearestDistance || (distance == this.nearestDistance &&
+                (this.nearest == null || this.columnIndex < this.nearestColumnIndex))) {
+            this.nearest = point;
+            this.nearestDistance = distance;
+            this.nearestColumnIndex = this.columnIndex;
+        }
+
+        return true;
+    }
+
+    /**
+     * Sets the scan order index of the column whose points will be collected next.
+     */
+    public void setColumnIndex(int index) {
+        this.columnIndex = index;
+    }
+
+    public PointOfInterest getNearest() {
+        return this.nearest;
+    }
+
+    public double getNearestDistance() {
+        return this.nearestDistance;
+    }
+}
@@ -0,0 +1,8 @@
+package me.jellysquid.mods.lithium.common.world.lighting;
+
+public interface BatchedLightingProvider {
+    /**
+     * @return The batcher collecting light checks for this lighting provider, which also exposes its statistics
+     */
+    LightUpdateBatcher getLightUpdateBatcher();
+}
@@ -0,0 +1,122 @@
+package me.jellysquid.mods.lithium.common.world.lighting;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Collects block positions which need their light re-checked, grouped by the chunk section containing them and with
+ * duplicate positions removed. The batches are later handed to the lighting thread as a single task per section
+ * instead of one task per block.
+ * <p>
+ * This class is not thread-safe and should only be used from the thread which owns it.
+ */
+public class LightUpdateBatcher {
+    private final Long2ObjectLinkedOpenHashMap<LongLinkedOpenHashSet> pendingBySection = new Long2ObjectLinkedOpenHashMap<>();
+
+    private long totalQueued;
+    private long totalDeduplicated;
+    private long totalBatches;
+
+    private volatile long totalRunBatches;
+    private volatile long totalLatency;
+    private volatile long maxLatency;
+
+    public void add(BlockPos pos) {
+        long sectionKey = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+
+        LongLinkedOpenHashSet positions = this.pendingBySection.get(sectionKey);
+
+        if (positions == null) {
+            this.pendingBySection.put(sectionKey, positions = new LongLinkedOpenHashSet());
+        }
+
+        this.totalQueued++;
+
+        if (!positions.add(pos.asLong())) {
+            this.totalDeduplicated++;
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.pendingBySection.isEmpty();
+    }
+
+    /**
+     * Removes all pending batches from this batcher and passes each of them to {@param consumer}.
+     */
+    public void flush(BatchConsumer consumer) {
+        if (this.pendingBySection.isEmpty()) {
+            return;
+        }
+
+        ObjectIterator<Long2ObjectLinkedOpenHashMap.Entry<LongLinkedOpenHashSet>> it = this.pendingBySection.long2ObjectEntrySet().fastIterator();
+
+        while (it.hasNext()) {
+            Long2ObjectLinkedOpenHashMap.Entry<LongLinkedOpenHashSet> entry = it.next();
+
+            this.totalBatches++;
+
+            consumer.accept(entry.getLongKey(), entry.getValue().toLongArray(), System.nanoTime());
+        }
+
+        this.pendingBySection.clear();
+    }
+
+    /**
+     * Called by the lighting thread once the batch has been processed, with the timestamp given to the consumer.
+     */
+    public void onBatchProcessed(long dispatchTime) {
+        long latency = System.nanoTime() - dispatchTime;
+
+        this.totalRunBatches++;
+        this.totalLatency += latency;
+
+        if (latency > this.maxLatency) {
+            this.maxLatency = latency;
+        }
+    }
+
+    /**
+     * @return The total number of light checks which have been requested
+     */
+    public long getTotalQueued() {
+        return this.totalQueued;
+    }
+
+    /**
+     * @return The total number of light checks which were dropped as they duplicated an already pending check
+     */
+    public long getTotalDeduplicated() {
+        return this.totalDeduplicated;
+    }
+
+    /**
+     * @return The total number of section batches which have been dispatched to the lighting thread
+     */
+    public long getTotalBatches() {
+        return this.totalBatches;
+    }
+
+    /**
+     * @return The average time in nanoseconds between a batch being dispatched and being processed
+     */
+    public double getAverageLatencyNanos() {
+        long batches = this.totalRunBatches;
+
+        return batches == 0 ? 0.0D : (double) this.totalLatency / batches;
+    }
+
+    /**
+     * @return The longest time in nanoseconds between a batch being dispatched and being processed
+     */
+    public long getMaxLatencyNanos() {
+        return this.maxLatency;
+    }
+
+    public interface BatchConsumer {
+        void accept(long sectionPos, long[] positions, long dispatchTime);
+    }
+}
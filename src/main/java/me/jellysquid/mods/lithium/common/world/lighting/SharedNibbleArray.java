@@ -0,0 +1,55 @@
+package me.jellysquid.mods.lithium.common.world.lighting;
+
+import net.minecraft.world.chunk.ChunkNibbleArray;
+
+import java.util.Arrays;
+
+public interface SharedNibbleArray {
+    /**
+     * The backing data of a fully lit sky light section. This array must never be modified.
+     */
+    byte[] FULLY_LIT_DATA = createFilled((byte) 0xFF);
+
+    /**
+     * Marks the backing array of this nibble array as shared between multiple instances, which will cause it to be
+     * copied before the first modification.
+     */
+    void markCopyOnWrite();
+
+    /**
+     * @return True if this nibble array is in the uniform fully lit state, meaning that it shares
+     * {@link #FULLY_LIT_DATA} with other arrays and has not been modified since
+     */
+    boolean isUniformFullyLit();
+
+    /**
+     * Checks the backing data of this nibble array, which for a column array is just the single layer that it repeats.
+     *
+     * @return True if every value in this nibble array is 15
+     */
+    boolean isFullyLit();
+
+    /**
+     * Returns the backing data of this nibble array without copying it if it is shared. The returned array must never
+     * be modified, unlike the one returned by {@link ChunkNibbleArray#asByteArray()}.
+     */
+    byte[] getReadOnlyData();
+
+    /**
+     * @return A new nibble array in which every value is 15, sharing its backing data with all other such arrays until
+     * it is first modified
+     */
+    static ChunkNibbleArray createFullyLit() {
+        ChunkNibbleArray array = new ChunkNibbleArray(FULLY_LIT_DATA);
+        ((SharedNibbleArray) array).markCopyOnWrite();
+
+        return array;
+    }
+
+    static byte[] createFilled(byte value) {
+        byte[] data = new byte[2048];
+        Arrays.fill(data, value);
+
+        return data;
+    }
+}
@@ -0,0 +1,251 @@
+package me.jellysquid.mods.lithium.mixin.ai.async_pathing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.AsyncPathNodeMaker;
+import me.jellysquid.mods.lithium.common.ai.pathing.AsyncPathRequest;
+import me.jellysquid.mods.lithium.common.ai.pathing.ChunkCacheSnapshot;
+import net.minecraft.entity.ai.pathing.EntityNavigation;
+import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNode;
+import net.minecraft.entity.ai.pathing.PathNodeMaker;
+import net.minecraft.entity.ai.pathing.PathNodeNavigator;
+import net.minecraft.entity.attribute.EntityAttributes;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkCache;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves path searches off the server thread. When a navigation repeats its previous request (as the movement tasks of
+ * villagers and many goals do while they follow a path), the search is started on a worker thread against a snapshot
+ * of the world. Until it completes, matching requests are answered with the remainder of the previous path for that
+ * request, starting at the node the mob is standing on, so callers see the same answer they were given before. The
+ * result is handed out by the next matching request once the search has completed, which usually happens one tick
+ * later. As the mob kept moving in the meantime, the result is trimmed to start at the node the mob is standing on, and
+ * is discarded in favour of a synchronous search if the mob isn't on it.
+ * <p>
+ * Requests for a new set of targets are still searched synchronously, as the caller may never ask for them again. The
+ * same applies whenever the previous path can't stand in for the result (because the mob has left it), the per-tick
+ * budget of asynchronous requests is exhausted, or a request has not completed in time.
+ * <p>
+ * Node makers save and restore pathfinding penalties of the mob around each search, which would race with the server
+ * thread changing them. Only the vanilla land node maker is used for asynchronous searches, as its only write to the
+ * mob (restoring the water penalty) is suppressed for the asynchronous instance. Any other node maker is always used
+ * synchronously.
+ */
+@Mixin(EntityNavigation.class)
+public abstract class EntityNavigationMixin {
+    @Shadow
+    @Final
+    protected MobEntity entity;
+
+    @Shadow
+    @Final
+    protected World world;
+
+    @Shadow
+    protected PathNodeMaker nodeMaker;
+
+    @Shadow
+    protected abstract PathNodeNavigator createPathNodeNavigator(int range);
+
+    // The request currently being handled by findPathToAny
+    private Set<BlockPos> requestTargets;
+    private int requestDistance;
+
+    // The last request which reached the path search, and the path which was found for it
+    private Set<BlockPos> prevTargets;
+    private int prevDistance;
+    private Path prevPath;
+
+    private AsyncPathRequest asyncRequest;
+
+    // A separate navigator for asynchronous searches, as the navigator of this navigation may be used at the same time
+    private PathNodeNavigator asyncNavigator;
+    private PathNodeMaker asyncNodeMaker;
+
+    @Inject(method = "findPathToAny(Ljava/util/Set;IZI)Lnet/minecraft/entity/ai/pathing/Path;", at = @At("HEAD"))
+    private void beginRequest(Set<BlockPos> positions, int range, boolean bl, int distance, CallbackInfoReturnable<Path> cir) {
+        this.requestTargets = positions;
+        this.requestDistance = distance;
+    }
+
+    @Redirect(
+            method = "findPathToAny(Ljava/util/Set;IZI)Lnet/minecraft/entity/ai/pathing/Path;",
+            at = @At(value = "NEW", target = "net/minecraft/world/chunk/ChunkCache")
+    )
+    private ChunkCache createChunkCache(World world, BlockPos minPos, BlockPos maxPos) {
+        boolean allowAsync = true;
+
+        AsyncPathRequest request = this.asyncRequest;
+
+        if (request != null) {
+            long age = request.getAge(world.getTime());
+
+            if (request.matches(this.requestTargets, this.requestDistance)) {
+                if (request.isDone() ? (!request.isFailed() && age <= AsyncPathRequest.MAX_RESULT_AGE && this.isOnPath(request.getPath())) :
+                        (age <= AsyncPathRequest.MAX_WAIT_TICKS && this.isOnPath(this.prevPath))) {
+                    // The pending request will answer this one, so there is no need to read the world at all
+                    return request.getSnapshot();
+                }
+
+                // The request failed, took too long or the mob has left its path, so fall back to searching synchronously
+                allowAsync = false;
+            }
+
+            this.abandonAsyncRequest();
+        }
+
+        if (allowAsync && this.isRepeatedRequest() && this.nodeMaker.getClass() == LandPathNodeMaker.class &&
+                this.isOnPath(this.prevPath) && AsyncPathRequest.tryReserve(world.getTime())) {
+            return new ChunkCacheSnapshot(world, minPos, maxPos);
+        }
+
+        return new ChunkCache(world, minPos, maxPos);
+    }
+
+    @Redirect(
+            method = "findPathToAny(Ljava/util/Set;IZI)Lnet/minecraft/entity/ai/pathing/Path;",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/entity/ai/pathing/PathNodeNavigator;findPathToAny(Lnet/minecraft/world/chunk/ChunkCache;Lnet/minecraft/entity/mob/MobEntity;Ljava/util/Set;FIF)Lnet/minecraft/entity/ai/pathing/Path;"
+            )
+    )
+    private Path findPath(PathNodeNavigator navigator, ChunkCache cache, MobEntity entity, Set<BlockPos> positions, float followRange, int distance, float rangeMultiplier) {
+        AsyncPathRequest request = this.asyncRequest;
+
+        if (request != null && cache == request.getSnapshot()) {
+            if (!request.isDone()) {
+                return this.trimToCurrentNode(this.prevPath);
+            }
+
+            this.asyncRequest = null;
+
+            // The result was found from where the mob stood when the search started
+            return this.prevPath = this.trimToCurrentNode(request.getPath());
+        }
+
+        this.prevTargets = positions;
+        this.prevDistance = distance;
+
+        if (cache instanceof ChunkCacheSnapshot) {
+            request = AsyncPathRequest.submit(this.getAsyncNavigator(), (ChunkCacheSnapshot) cache, entity, positions,
+                    followRange, distance, rangeMultiplier, this.world.getTime());
+
+            if (request != null) {
+                this.asyncRequest = request;
+
+                return this.trimToCurrentNode(this.prevPath);
+            }
+
+            // The snapshot is still a valid view of the world, so just search it synchronously
+        }
+
+        return this.prevPath = navigator.findPathToAny(cache, entity, positions, followRange, distance, rangeMultiplier);
+    }
+
+    /**
+     * Drop requests which will not be picked up anymore, so that their snapshots can be freed.
+     */
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void expireAsyncRequest(CallbackInfo ci) {
+        AsyncPathRequest request = this.asyncRequest;
+
+        if (request != null && request.getAge(this.world.getTime()) > AsyncPathRequest.MAX_RESULT_AGE) {
+            this.abandonAsyncRequest();
+        }
+    }
+
+    private boolean isRepeatedRequest() {
+        return this.requestDistance == this.prevDistance && this.requestTargets.equals(this.prevTargets);
+    }
+
+    /**
+     * @return True if the path can be handed out for the mob's current position, either because the mob is standing
+     * on one of its nodes or because no path was found
+     */
+    private boolean isOnPath(Path path) {
+        return path == null || this.getCurrentNodeIndex(path) >= 0;
+    }
+
+    /**
+     * @return A new path along the remainder of the given path, starting at the node the mob is standing on, or null if
+     * the given path is null
+     */
+    private Path trimToCurrentNode(Path path) {
+        if (path == null) {
+            return null;
+        }
+
+        int start = Math.max(0, this.getCurrentNodeIndex(path));
+        List<PathNode> nodes = new ArrayList<>(path.getLength() - start);
+
+        for (int i = start; i < path.getLength(); i++) {
+            nodes.add(path.getNode(i));
+        }
+
+        return new Path(nodes, path.getTarget(), path.reachesTarget());
+    }
+
+    private int getCurrentNodeIndex(Path path) {
+        // [VanillaCopy] LandPathNodeMaker#getStart, for entities which are standing on the ground
+        int x = MathHelper.floor(this.entity.getX());
+        int y = MathHelper.floor(this.entity.getY() + 0.5D);
+        int z = MathHelper.floor(this.entity.getZ());
+
+        for (int i = 0; i < path.getLength(); i++) {
+            PathNode node = path.getNode(i);
+
+            if (node.x == x && node.y == y && node.z == z) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void abandonAsyncRequest() {
+        AsyncPathRequest request = this.asyncRequest;
+        this.asyncRequest = null;
+
+        // The search may still be running on the async navigator, so a new one will have to be created
+        if (!request.isDone()) {
+            this.asyncNavigator = null;
+            this.asyncNodeMaker = null;
+        }
+    }
+
+    private PathNodeNavigator getAsyncNavigator() {
+        if (this.asyncNavigator == null) {
+            PathNodeMaker nodeMaker = this.nodeMaker;
+
+            // Creating a navigator also replaces the node maker of this navigation, so it needs to be restored
+            this.asyncNavigator = this.createPathNodeNavigator(MathHelper.floor(this.entity.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE) * 16.0D));
+            this.asyncNodeMaker = this.nodeMaker;
+
+            ((AsyncPathNodeMaker) this.asyncNodeMaker).markAsync();
+
+            this.nodeMaker = nodeMaker;
+        }
+
+        // Other code changes the settings of the navigation's node maker at any time, so keep them in sync
+        this.asyncNodeMaker.setCanEnterOpenDoors(this.nodeMaker.canEnterOpenDoors());
+        this.asyncNodeMaker.setCanOpenDoors(this.nodeMaker.canOpenDoors());
+        this.asyncNodeMaker.setCanSwim(this.nodeMaker.canSwim());
+
+        return this.asyncNavigator;
+    }
+}
@@ -0,0 +1,31 @@
+package me.jellysquid.mods.lithium.mixin.ai.async_pathing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.AsyncPathNodeMaker;
+import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
+import net.minecraft.entity.ai.pathing.PathNodeType;
+import net.minecraft.entity.mob.MobEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(LandPathNodeMaker.class)
+public class LandPathNodeMakerMixin implements AsyncPathNodeMaker {
+    private boolean async;
+
+    @Override
+    public void markAsync() {
+        this.async = true;
+    }
+
+    /**
+     * Vanilla writes the water penalty which was read from the mob at the start of the search back to the mob once the
+     * search is done. Other code (such as FollowOwnerGoal) may have changed the penalty on the server thread while an
+     * asynchronous search was running, which writing back the old value would undo.
+     */
+    @Redirect(method = "clear", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/mob/MobEntity;setPathfindingPenalty(Lnet/minecraft/entity/ai/pathing/PathNodeType;F)V"))
+    private void restoreWaterPenalty(MobEntity entity, PathNodeType type, float penalty) {
+        if (!this.async) {
+            entity.setPathfindingPenalty(type, penalty);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package me.jellysquid.mods.lithium.mixin.ai.async_pathing;
+
+import me.jellysquid.mods.lithium.common.world.chunk.PalettedContainerSnapshot;
+import me.jellysquid.mods.lithium.common.world.chunk.SnapshotablePalettedContainer;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.world.chunk.Palette;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Implements copy-on-write snapshots of a container's data array. Taking a snapshot only marks the current data array
+ * as shared, and the next write to the container copies it first. If the container replaces its data array in the
+ * meantime (i.e. because the palette was resized), no copy is made at all.
+ */
+@Mixin(PalettedContainer.class)
+public abstract class PalettedContainerMixin<T> implements SnapshotablePalettedContainer<T> {
+    @Shadow
+    private Palette<T> palette;
+
+    @Shadow
+    protected PackedIntegerArray data;
+
+    @Shadow
+    @Final
+    private T defaultValue;
+
+    private PackedIntegerArray sharedData;
+
+    @Override
+    public PalettedContainerSnapshot<T> createSnapshot() {
+        this.sharedData = this.data;
+
+        return new PalettedContainerSnapshot<>(this.palette, this.data, this.defaultValue);
+    }
+
+    @Inject(method = "setAndGetOldValue", at = @At("HEAD"))
+    private void beforeSetAndGetOldValue(int index, T value, CallbackInfoReturnable<T> cir) {
+        this.copyDataIfShared();
+    }
+
+    @Inject(method = "set(ILjava/lang/Object;)V", at = @At("HEAD"))
+    private void beforeSet(int index, T value, CallbackInfo ci) {
+        this.copyDataIfShared();
+    }
+
+    private void copyDataIfShared() {
+        PackedIntegerArray data = this.data;
+
+        if (data == this.sharedData) {
+            this.data = new PackedIntegerArray(data.getElementBits(), 4096, data.getStorage().clone());
+            this.sharedData = null;
+        }
+    }
+}
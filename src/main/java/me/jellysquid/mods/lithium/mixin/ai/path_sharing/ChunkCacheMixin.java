@@ -0,0 +1,53 @@
+package me.jellysquid.mods.lithium.mixin.ai.path_sharing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.SectionModificationView;
+import me.jellysquid.mods.lithium.common.world.chunk.ModificationTrackingSection;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkCache;
+import net.minecraft.world.chunk.ChunkSection;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+@Mixin(ChunkCache.class)
+public class ChunkCacheMixin implements SectionModificationView {
+    @Shadow
+    @Final
+    protected Chunk[][] chunks;
+
+    @Shadow
+    @Final
+    protected int minX;
+
+    @Shadow
+    @Final
+    protected int minZ;
+
+    @Override
+    public boolean containsSection(int sectionX, int sectionY, int sectionZ) {
+        if (!ModificationTrackingSection.ENABLED) {
+            return false;
+        }
+
+        int x = sectionX - this.minX;
+        int z = sectionZ - this.minZ;
+
+        return x >= 0 && x < this.chunks.length && z >= 0 && z < this.chunks[x].length && this.chunks[x][z] != null;
+    }
+
+    @Override
+    public ChunkSection getTrackedSection(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < 0 || sectionY >= 16) {
+            return null;
+        }
+
+        return this.chunks[sectionX - this.minX][sectionZ - this.minZ].getSectionArray()[sectionY];
+    }
+
+    @Override
+    public int getSectionModificationCount(int sectionX, int sectionY, int sectionZ) {
+        ChunkSection section = this.getTrackedSection(sectionX, sectionY, sectionZ);
+
+        return section != null ? ((ModificationTrackingSection) section).getModificationCount() : 0;
+    }
+}
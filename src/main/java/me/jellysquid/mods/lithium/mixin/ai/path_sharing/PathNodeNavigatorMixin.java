@@ -0,0 +1,74 @@
+package me.jellysquid.mods.lithium.mixin.ai.path_sharing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.PathCache;
+import me.jellysquid.mods.lithium.common.ai.pathing.PathCacheHolder;
+import me.jellysquid.mods.lithium.common.ai.pathing.SectionModificationView;
+import me.jellysquid.mods.lithium.common.world.chunk.ModificationTrackingSection;
+import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNodeMaker;
+import net.minecraft.entity.ai.pathing.PathNodeNavigator;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ChunkCache;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Set;
+
+/**
+ * Shares paths between mobs which head to the same destination, such as the members of a raid or the villagers
+ * walking to a meeting point. Sharing is limited to ground-based mobs searching for a single target, as the start node
+ * of their searches can be predicted from their position alone.
+ *
+ * Cached paths are validated against the modification counts of chunk sections, which are only tracked while the
+ * chunk.modification_tracking patch is enabled.
+ */
+@Mixin(PathNodeNavigator.class)
+public class PathNodeNavigatorMixin {
+    @Shadow
+    @Final
+    private PathNodeMaker pathNodeMaker;
+
+    @Inject(
+            method = "findPathToAny(Lnet/minecraft/world/chunk/ChunkCache;Lnet/minecraft/entity/mob/MobEntity;Ljava/util/Set;FIF)Lnet/minecraft/entity/ai/pathing/Path;",
+            at = @At("HEAD"),
+            cancellable = true
+    )
+    private void getCachedPath(ChunkCache world, MobEntity mob, Set<BlockPos> positions, float followRange, int distance, float rangeMultiplier, CallbackInfoReturnable<Path> cir) {
+        if (this.canSharePaths(positions) && mob.isOnGround()) {
+            Path path = this.getPathCache(mob).getPath((SectionModificationView) world, mob, this.pathNodeMaker,
+                    positions.iterator().next(), distance, mob.world.getTime());
+
+            if (path != null) {
+                cir.setReturnValue(path);
+            }
+        }
+    }
+
+    @Inject(
+            method = "findPathToAny(Lnet/minecraft/world/chunk/ChunkCache;Lnet/minecraft/entity/mob/MobEntity;Ljava/util/Set;FIF)Lnet/minecraft/entity/ai/pathing/Path;",
+            at = @At("RETURN")
+    )
+    private void putCachedPath(ChunkCache world, MobEntity mob, Set<BlockPos> positions, float followRange, int distance, float rangeMultiplier, CallbackInfoReturnable<Path> cir) {
+        Path path = cir.getReturnValue();
+
+        if (path != null && path.reachesTarget() && this.canSharePaths(positions)) {
+            this.getPathCache(mob).putPath((SectionModificationView) world, mob, this.pathNodeMaker,
+                    positions.iterator().next(), distance, path, mob.world.getTime());
+        }
+    }
+
+    private boolean canSharePaths(Set<BlockPos> positions) {
+        // Without modification tracking, there is no way to tell whether a cached path is still valid
+        return ModificationTrackingSection.ENABLED && positions.size() == 1 && this.pathNodeMaker.getClass() == LandPathNodeMaker.class;
+    }
+
+    private PathCache getPathCache(MobEntity mob) {
+        return ((PathCacheHolder) mob.world).getPathCache();
+    }
+}
@@ -0,0 +1,16 @@
+package me.jellysquid.mods.lithium.mixin.ai.path_sharing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.PathCache;
+import me.jellysquid.mods.lithium.common.ai.pathing.PathCacheHolder;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+
+@Mixin(World.class)
+public class WorldMixin implements PathCacheHolder {
+    private final PathCache pathCache = new PathCache();
+
+    @Override
+    public PathCache getPathCache() {
+        return this.pathCache;
+    }
+}
@@ -0,0 +1,19 @@
+package me.jellysquid.mods.lithium.mixin.ai.pathing;
+
+import me.jellysquid.mods.lithium.common.ai.pathing.PathNodeTypeCache;
+import net.minecraft.block.Blocks;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Blocks.class)
+public class BlocksMixin {
+    /**
+     * The cached node types depend on block tags, which have just been (re)loaded when this is called.
+     */
+    @Inject(method = "refreshShapeCache", at = @At("RETURN"))
+    private static void onShapeCachesRefreshed(CallbackInfo ci) {
+        PathNodeTypeCache.invalidateAll();
+    }
+}
@@ -1,5 +1,7 @@
 package me.jellysquid.mods.lithium.mixin.ai.pathing;
 
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionView;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.fluid.FluidState;
@@ -22,7 +24,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
  * code.
  */
 @Mixin(ChunkCache.class)
-public class ChunkCacheMixin {
+public class ChunkCacheMixin implements ChunkSectionView {
     private static final BlockState DEFAULT_BLOCK = Blocks.AIR.getDefaultState();
 
     @Shadow
@@ -96,6 +98,23 @@ public class ChunkCacheMixin {
     public FluidState getFluidState(BlockPos pos) {
         return this.getBlockState(pos).getFluidState();
     }
-}
 
+    @Override
+    public int getSectionSummaryFlags(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY >= 0 && sectionY < 16) {
+            int chunkX = sectionX - this.minX;
+            int chunkZ = sectionZ - this.minZ;
+
+            if (chunkX >= 0 && chunkX < this.xLen && chunkZ >= 0 && chunkZ < this.zLen) {
+                Chunk chunk = this.chunksFlat[(chunkX * this.zLen) + chunkZ];
 
+                if (chunk != null) {
+                    return ChunkSectionSummary.getFlags(chunk.getSectionArray()[sectionY]);
+                }
+            }
+        }
+
+        // Anything outside of the cache is treated as air
+        return 0;
+    }
+}
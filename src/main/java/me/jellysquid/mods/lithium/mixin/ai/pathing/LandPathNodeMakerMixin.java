@@ -1,7 +1,6 @@
 package me.jellysquid.mods.lithium.mixin.ai.pathing;
 
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import me.jellysquid.mods.lithium.common.ai.pathing.PathNodeTypeCache;
 import net.minecraft.block.*;
 import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
 import net.minecraft.entity.ai.pathing.NavigationType;
@@ -20,12 +19,16 @@ import org.spongepowered.asm.mixin.Shadow;
  * instanceof, and block property checks. Since each blockstate can only map to one type of node, we can create a
  * cache which stores the result of this complicated code path. This provides a significant speed-up in path-finding
  * code and should be relatively safe.
+ *
+ * The cache is backed by arrays indexed by raw block state ids, which avoids hashing and can be safely read from any
+ * thread.
  */
 @Mixin(LandPathNodeMaker.class)
 public abstract class LandPathNodeMakerMixin {
-    // This is not thread-safe!
-    private static final Reference2ReferenceMap<BlockState, PathNodeType> commonTypes = new Reference2ReferenceOpenHashMap<>();
-    private static final Reference2ReferenceMap<BlockState, PathNodeType> neighborTypes = new Reference2ReferenceOpenHashMap<>();
+    private static final PathNodeTypeCache nodeTypes = new PathNodeTypeCache(
+            LandPathNodeMakerMixin::getTaggedBlockType$lithium,
+            LandPathNodeMakerMixin::getNodeTypeForNeighbor$lithium
+    );
 
     @Shadow
     private static boolean method_27138(BlockState blockState) {
@@ -45,13 +48,8 @@ public abstract class LandPathNodeMakerMixin {
             return PathNodeType.OPEN;
         }
 
-        // Get the cached type for this block state
-        PathNodeType type = commonTypes.get(blockState);
-
-        // No result has been cached for this block state yet, so calculate and cache it
-        if (type == null) {
-            commonTypes.put(blockState, type = getTaggedBlockType$lithium(blockState));
-        }
+        // Get the cached type for this block state, calculating it if no result has been cached yet
+        PathNodeType type = nodeTypes.getCommonNodeType(blockState);
 
         // If the node type is open, it means that we were unable to determine a more specific type, so we need
         // to check the fallback path.
@@ -147,6 +145,11 @@ public abstract class LandPathNodeMakerMixin {
         int y = pos.getY();
         int z = pos.getZ();
 
+        // Skip the scan entirely if the surrounding chunk sections contain no blocks which could affect the type
+        if (nodeTypes.isNeighborhoodOpen(blockView, x, y, z)) {
+            return type;
+        }
+
         for (int x2 = -1; x2 <= 1; ++x2) {
             for (int y2 = -1; y2 <= 1; ++y2) {
                 for (int z2 = -1; z2 <= 1; ++z2) {
@@ -155,9 +158,9 @@ public abstract class LandPathNodeMakerMixin {
 
                         BlockState state = blockView.getBlockState(pos);
 
-                        // Ensure that the block isn't air first to avoid expensive map lookups
+                        // Ensure that the block isn't air first to avoid cache lookups
                         if (!state.isAir()) {
-                            PathNodeType neighborType = getNodeTypeForNeighbor(state);
+                            PathNodeType neighborType = nodeTypes.getNeighborNodeType(state);
 
                             if (neighborType != PathNodeType.OPEN) {
                                 type = neighborType;
@@ -171,31 +174,20 @@ public abstract class LandPathNodeMakerMixin {
         return type;
     }
 
-    private static PathNodeType getNodeTypeForNeighbor(BlockState state) {
-        PathNodeType type = neighborTypes.get(state);
-
-        // We already cached a type for this block state, so return it
-        if (type != null) {
-            return type;
-        }
-
+    private static PathNodeType getNodeTypeForNeighbor$lithium(BlockState state) {
         // [VanillaCopy] LandPathNodeMaker#getNodeTypeFromNeighbors
         // Determine what kind of obstacle type this neighbor is
         if (state.isOf(Blocks.CACTUS)) {
-            type = PathNodeType.DANGER_CACTUS;
+            return PathNodeType.DANGER_CACTUS;
         } else if (state.isOf(Blocks.SWEET_BERRY_BUSH)) {
-            type = PathNodeType.DANGER_OTHER;
+            return PathNodeType.DANGER_OTHER;
         } else if (method_27138(state)) {
-            type = PathNodeType.DANGER_FIRE;
+            return PathNodeType.DANGER_FIRE;
         } else if (state.getFluidState().isIn(FluidTags.WATER)) {
             return PathNodeType.WATER_BORDER;
-        } else {
-            type = PathNodeType.OPEN;
         }
 
         // If no obstacle is provided by this block, then use a special value to signal it
-        neighborTypes.put(state, type);
-
-        return type;
+        return PathNodeType.OPEN;
     }
 }
@@ -3,6 +3,7 @@ package me.jellysquid.mods.lithium.mixin.ai.poi.fast_retrieval;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.serialization.Codec;
 import me.jellysquid.mods.lithium.common.util.Collector;
+import me.jellysquid.mods.lithium.common.world.interests.NearestPointOfInterestCollector;
 import me.jellysquid.mods.lithium.common.world.interests.PointOfInterestCollectors;
 import me.jellysquid.mods.lithium.common.world.interests.RegionBasedStorageSectionAccess;
 import net.minecraft.datafixer.DataFixTypes;
@@ -61,34 +62,78 @@ public abstract class PointOfInterestStorageMixin extends SerializingRegionBased
 
     /**
      * @reason Avoid stream-heavy code, use a faster iterator and callback-based approach
-     * @author JellySquid
+     * @author JellySquid, MrGrim
      */
     @Overwrite
     public Optional<BlockPos> getNearestPosition(Predicate<PointOfInterestType> predicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus status) {
-        List<PointOfInterest> points = this.getAllWithinCircle(predicate, pos, radius, status);
+        int minChunkX = (pos.getX() - radius - 1) >> 4;
+        int minChunkZ = (pos.getZ() - radius - 1) >> 4;
 
-        BlockPos nearest = null;
-        double nearestDistance = Double.POSITIVE_INFINITY;
+        int maxChunkX = (pos.getX() + radius + 1) >> 4;
+        int maxChunkZ = (pos.getZ() + radius + 1) >> 4;
 
-        for (PointOfInterest point : points) {
-            double distance = point.getPos().getSquaredDistance(pos);
+        int width = maxChunkZ - minChunkZ + 1;
+        double radiusSq = (double) radius * radius;
+
+        // Each entry packs the distance bound of a column into the upper bits and its index into the lower bits, so
+        // that sorting the array orders the columns from nearest to furthest
+        long[] columns = new long[(maxChunkX - minChunkX + 1) * width];
+        int count = 0;
+
+        for (int x = minChunkX; x <= maxChunkX; x++) {
+            for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                long bound = getColumnDistanceBound(pos, x, z);
 
-            if (distance < nearestDistance) {
-                nearest = point.getPos();
-                nearestDistance = distance;
+                if (bound <= radiusSq) {
+                    columns[count++] = (bound << 32) | ((x - minChunkX) * width + (z - minChunkZ));
+                }
             }
         }
 
-        return Optional.ofNullable(nearest);
+        Arrays.sort(columns, 0, count);
+
+        NearestPointOfInterestCollector collector = new NearestPointOfInterestCollector(pos, radiusSq);
+        Collector<PointOfInterestSet> consumer = PointOfInterestCollectors.collectAllMatching(predicate, status, collector);
+
+        // noinspection unchecked
+        RegionBasedStorageSectionAccess<PointOfInterestSet> storage = ((RegionBasedStorageSectionAccess<PointOfInterestSet>) this);
+
+        for (int i = 0; i < count; i++) {
+            long entry = columns[i];
+
+            // No remaining column can contain a point closer than the one we've already found. Columns which could
+            // contain an equally close point are still visited, as they may come earlier in the scan order
+            if ((entry >>> 32) > collector.getNearestDistance()) {
+                break;
+            }
+
+            int index = (int) entry;
+
+            collector.setColumnIndex(index);
+
+            storage.collectWithinChunkColumn(minChunkX + (index / width), minChunkZ + (index % width), consumer);
+        }
+
+        PointOfInterest nearest = collector.getNearest();
+
+        return nearest != null ? Optional.of(nearest.getPos()) : Optional.empty();
     }
 
     /**
      * @reason Avoid stream-heavy code, use a faster iterator and callback-based approach
-     * @author JellySquid
+     * @author JellySquid, MrGrim
      */
     @Overwrite
     public long count(Predicate<PointOfInterestType> predicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus status) {
-        return this.getAllWithinCircle(predicate, pos, radius, status).size();
+        int[] count = new int[1];
+
+        this.collectWithinCircle(predicate, pos, radius, status, (point) -> {
+            count[0]++;
+
+            return true;
+        });
+
+        return count[0];
     }
 
     private List<PointOfInterest> getAllWithinCircle(Predicate<PointOfInterestType> predicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus status) {
@@ -112,12 +157,31 @@ public abstract class PointOfInterestStorageMixin extends SerializingRegionBased
         // noinspection unchecked
         RegionBasedStorageSectionAccess<PointOfInterestSet> storage = ((RegionBasedStorageSectionAccess<PointOfInterestSet>) this);
 
+        double radiusSq = (double) radius * radius;
+
         for (int x = minChunkX; x <= maxChunkX; x++) {
             for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                // Skip the corners of the square which lie entirely outside the circle
+                if (getColumnDistanceBound(pos, x, z) > radiusSq) {
+                    continue;
+                }
+
                 if (!storage.collectWithinChunkColumn(x, z, consumer)) {
                     return;
                 }
             }
         }
     }
+
+    /**
+     * Returns a lower bound for the squared horizontal distance between the given position and any block within the given
+     * chunk column. The bound is padded by a block on each axis to account for {@link BlockPos#getSquaredDistance}
+     * measuring from block centers.
+     */
+    private static long getColumnDistanceBound(BlockPos pos, int chunkX, int chunkZ) {
+        long dx = Math.max(0, Math.max((chunkX << 4) - pos.getX(), pos.getX() - ((chunkX << 4) + 15)) - 1);
+        long dz = Math.max(0, Math.max((chunkZ << 4) - pos.getZ(), pos.getZ() - ((chunkZ << 4) + 15)) - 1);
+
+        return (dx * dx) + (dz * dz);
+    }
 }
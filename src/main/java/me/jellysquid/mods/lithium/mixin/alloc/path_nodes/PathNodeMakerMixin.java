@@ -0,0 +1,39 @@
+package me.jellysquid.mods.lithium.mixin.alloc.path_nodes;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import net.minecraft.entity.ai.pathing.PathNode;
+import net.minecraft.entity.ai.pathing.PathNodeMaker;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+
+@Mixin(PathNodeMaker.class)
+public class PathNodeMakerMixin {
+    @Shadow
+    @Final
+    protected Int2ObjectMap<PathNode> pathNodeCache;
+
+    /**
+     * Every candidate node visited during a path search is looked up through this method, often several times. Vanilla
+     * uses computeIfAbsent with a lambda capturing the coordinates, which allocates on every call even when the node
+     * already exists.
+     *
+     * @reason Avoid allocating a lambda for every node lookup
+     * @author MrGrim
+     */
+    @Overwrite
+    protected PathNode getNode(int x, int y, int z) {
+        int key = PathNode.hash(x, y, z);
+
+        PathNode node = this.pathNodeCache.get(key);
+
+        if (node == null) {
+            node = new PathNode(x, y, z);
+
+            this.pathNodeCache.put(key, node);
+        }
+
+        return node;
+    }
+}
@@ -0,0 +1,21 @@
+package me.jellysquid.mods.lithium.mixin.block.state_tables;
+
+import me.jellysquid.mods.lithium.common.block.BlockStateTableIndex;
+import net.minecraft.block.AbstractBlock;
+import org.spongepowered.asm.mixin.Mixin;
+
+@Mixin(AbstractBlock.AbstractBlockState.class)
+public class AbstractBlockStateMixin implements BlockStateTableIndex {
+    // Looking up the raw id of a state in the id list requires hashing, so it is stored on the state itself
+    private int tableIndex = -1;
+
+    @Override
+    public int getTableIndex() {
+        return this.tableIndex;
+    }
+
+    @Override
+    public void setTableIndex(int index) {
+        this.tableIndex = index;
+    }
+}
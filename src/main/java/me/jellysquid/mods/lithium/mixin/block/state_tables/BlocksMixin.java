@@ -0,0 +1,19 @@
+package me.jellysquid.mods.lithium.mixin.block.state_tables;
+
+import me.jellysquid.mods.lithium.common.block.BlockStateTables;
+import net.minecraft.block.Blocks;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Blocks.class)
+public class BlocksMixin {
+    /**
+     * Rebuild the tables once the shape caches of all block states are up to date.
+     */
+    @Inject(method = "refreshShapeCache", at = @At("RETURN"))
+    private static void onShapeCachesRefreshed(CallbackInfo ci) {
+        BlockStateTables.rebuild();
+    }
+}
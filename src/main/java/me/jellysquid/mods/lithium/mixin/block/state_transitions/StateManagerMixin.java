@@ -0,0 +1,32 @@
+package me.jellysquid.mods.lithium.mixin.block.state_transitions;
+
+import com.google.common.collect.ImmutableList;
+import me.jellysquid.mods.lithium.common.block.StateTransitionTable;
+import net.minecraft.state.State;
+import net.minecraft.state.StateManager;
+import net.minecraft.state.property.Property;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Collection;
+
+@Mixin(StateManager.class)
+public abstract class StateManagerMixin<O, S extends State<O, S>> {
+    @Shadow
+    public abstract ImmutableList<S> getStates();
+
+    @Shadow
+    public abstract Collection<Property<?>> getProperties();
+
+    /**
+     * The set of states and properties of an owner never changes after the state manager has been constructed, so the
+     * transition table can be built right away alongside vanilla's own tables.
+     */
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void createTransitionTable(CallbackInfo ci) {
+        StateTransitionTable.create(this.getProperties(), this.getStates());
+    }
+}
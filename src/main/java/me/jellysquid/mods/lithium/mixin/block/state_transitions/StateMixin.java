@@ -0,0 +1,108 @@
+package me.jellysquid.mods.lithium.mixin.block.state_transitions;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Table;
+import me.jellysquid.mods.lithium.common.block.StateTransitionTable;
+import me.jellysquid.mods.lithium.common.block.StateTransitionTableHolder;
+import net.minecraft.state.State;
+import net.minecraft.state.property.Property;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+
+import java.util.Iterator;
+
+@Mixin(State.class)
+public abstract class StateMixin<O, S> implements StateTransitionTableHolder<S> {
+    @Shadow
+    @Final
+    protected O owner;
+
+    @Shadow
+    @Final
+    private ImmutableMap<Property<?>, Comparable<?>> entries;
+
+    @Shadow
+    private Table<Property<?>, Comparable<?>, S> withTable;
+
+    @Shadow
+    public abstract <T extends Comparable<T>> T get(Property<T> property);
+
+    private StateTransitionTable<S> transitionTable;
+    private int transitionIndex;
+
+    @Override
+    public void setTransitionTable(StateTransitionTable<S> table, int index) {
+        this.transitionTable = table;
+        this.transitionIndex = index;
+    }
+
+    /**
+     * @reason Look up the neighboring state in the transition table instead of hashing into the nested maps
+     * @author MrGrim
+     */
+    @Overwrite
+    @SuppressWarnings("unchecked")
+    public <T extends Comparable<T>, V extends T> S with(Property<T> property, V value) {
+        StateTransitionTable<S> table = this.transitionTable;
+
+        if (table != null) {
+            S state = table.with(this.transitionIndex, property, value);
+
+            if (state != null) {
+                return state;
+            }
+        }
+
+        // [VanillaCopy] State#with, used as a fallback and to produce the same errors as vanilla
+        Comparable<?> comparable = this.entries.get(property);
+
+        if (comparable == null) {
+            throw new IllegalArgumentException("Cannot set property " + property + " as it does not exist in " + this.owner);
+        } else if (comparable == value) {
+            return (S) (Object) this;
+        } else {
+            S state = this.withTable.get(property, value);
+
+            if (state == null) {
+                throw new IllegalArgumentException("Cannot set property " + property + " to " + value + " on " + this.owner + ", it is not an allowed value");
+            }
+
+            return state;
+        }
+    }
+
+    /**
+     * @reason Look up the neighboring state in the transition table instead of iterating over the property's values
+     * @author MrGrim
+     */
+    @Overwrite
+    public <T extends Comparable<T>> S cycle(Property<T> property) {
+        StateTransitionTable<S> table = this.transitionTable;
+
+        if (table != null) {
+            S state = table.cycle(this.transitionIndex, property);
+
+            if (state != null) {
+                return state;
+            }
+        }
+
+        // [VanillaCopy] State#cycle and State#getNext
+        T current = this.get(property);
+        Iterator<T> iterator = property.getValues().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().equals(current)) {
+                if (iterator.hasNext()) {
+                    return this.with(property, iterator.next());
+                }
+
+                return this.with(property, property.getValues().iterator().next());
+            }
+        }
+
+        return this.with(property, iterator.next());
+    }
+}
@@ -0,0 +1,32 @@
+package me.jellysquid.mods.lithium.mixin.chunk.block_summary;
+
+import me.jellysquid.mods.lithium.common.world.chunk.BlockStateSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockSummaryFlags;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+@Mixin(AbstractBlock.AbstractBlockState.class)
+public abstract class AbstractBlockStateMixin implements BlockStateSummary {
+    @Shadow
+    protected abstract BlockState asBlockState();
+
+    /**
+     * The flags are computed lazily, as the shape cache and the point of interest registry will not be initialized yet
+     * when the block state is constructed. Racing threads will always compute the same value, so no synchronization
+     * is needed.
+     */
+    private int summaryFlags = -1;
+
+    @Override
+    public int getSummaryFlags() {
+        int flags = this.summaryFlags;
+
+        if (flags == -1) {
+            this.summaryFlags = flags = BlockSummaryFlags.compute(this.asBlockState());
+        }
+
+        return flags;
+    }
+}
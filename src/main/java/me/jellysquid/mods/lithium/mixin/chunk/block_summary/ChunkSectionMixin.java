@@ -0,0 +1,159 @@
+package me.jellysquid.mods.lithium.mixin.chunk.block_summary;
+
+import me.jellysquid.mods.lithium.common.world.chunk.BlockStateSummary;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockSummaryFlags;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionCollisionMasks;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Arrays;
+
+/**
+ * Keep track of how many blocks of each class described by {@link BlockSummaryFlags} are in this chunk section, and
+ * maintain a summary word with a bit set for each class which is present. Code which only cares about a specific class
+ * of blocks (such as collision code caring about oversized blocks, or fluid pushing caring about fluids) can then skip
+ * entire sections with a single bit test.
+ * <p>
+ * For collision code, per-block masks of collidable and full cube blocks are also built lazily, which allows skipping
+ * over blocks without a collision shape by scanning bits instead of looking up each block state.
+ *
+ * @author 2No2Name
+ */
+@Mixin(ChunkSection.class)
+public abstract class ChunkSectionMixin implements ChunkSectionSummary, ChunkSectionCollisionMasks {
+    @Shadow
+    public abstract void calculateCounts();
+
+    @Shadow
+    public abstract BlockState getBlockState(int x, int y, int z);
+
+    private final short[] summaryCounts = new short[BlockSummaryFlags.COUNT];
+
+    private int summaryFlags;
+
+    private long[] collidableMask;
+    private long[] fullCubeMask;
+
+    @Redirect(method = "calculateCounts", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/PalettedContainer;count(Lnet/minecraft/world/chunk/PalettedContainer$CountConsumer;)V"))
+    private void addToSummaryCounts(PalettedContainer<BlockState> palettedContainer, PalettedContainer.CountConsumer<BlockState> consumer) {
+        palettedContainer.count((state, count) -> {
+            consumer.accept(state, count);
+            this.updateSummary(state, count);
+        });
+    }
+
+    @Inject(method = "calculateCounts", at = @At("HEAD"))
+    private void resetSummaryCounts(CallbackInfo ci) {
+        Arrays.fill(this.summaryCounts, (short) 0);
+        this.summaryFlags = 0;
+
+        this.collidableMask = null;
+        this.fullCubeMask = null;
+    }
+
+    @Inject(method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;", at = @At("RETURN"))
+    private void updateSummaryCounts(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> cir) {
+        BlockState prevState = cir.getReturnValue();
+
+        if (prevState != state) {
+            this.updateSummary(prevState, -1);
+            this.updateSummary(state, 1);
+
+            if (this.collidableMask != null) {
+                setMaskBit(this.collidableMask, x, y, z, ChunkSectionCollisionMasks.isCollidable(state));
+                setMaskBit(this.fullCubeMask, x, y, z, ChunkSectionCollisionMasks.hasFullCubeCollision(state));
+            }
+        }
+    }
+
+    @Override
+    public long[] getCollidableMask() {
+        if (this.collidableMask == null) {
+            this.buildCollisionMasks();
+        }
+
+        return this.collidableMask;
+    }
+
+    @Override
+    public long[] getFullCubeMask() {
+        if (this.fullCubeMask == null) {
+            this.buildCollisionMasks();
+        }
+
+        return this.fullCubeMask;
+    }
+
+    private void buildCollisionMasks() {
+        long[] collidable = new long[64];
+        long[] fullCube = new long[64];
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState state = this.getBlockState(x, y, z);
+
+                    setMaskBit(collidable, x, y, z, ChunkSectionCollisionMasks.isCollidable(state));
+                    setMaskBit(fullCube, x, y, z, ChunkSectionCollisionMasks.hasFullCubeCollision(state));
+                }
+            }
+        }
+
+        this.fullCubeMask = fullCube;
+        this.collidableMask = collidable;
+    }
+
+    private static void setMaskBit(long[] mask, int x, int y, int z, boolean value) {
+        int index = y << 8 | z << 4 | x;
+
+        if (value) {
+            mask[index >>> 6] |= 1L << (index & 63);
+        } else {
+            mask[index >>> 6] &= ~(1L << (index & 63));
+        }
+    }
+
+    private void updateSummary(BlockState state, int delta) {
+        int flags = ((BlockStateSummary) state).getSummaryFlags();
+
+        while (flags != 0) {
+            int bit = Integer.numberOfTrailingZeros(flags);
+            flags &= flags - 1;
+
+            int count = this.summaryCounts[bit] += delta;
+
+            if (count > 0) {
+                this.summaryFlags |= 1 << bit;
+            } else {
+                this.summaryFlags &= ~(1 << bit);
+            }
+        }
+    }
+
+    @Override
+    public int getSummaryFlags() {
+        return this.summaryFlags;
+    }
+
+    /**
+     * Initialize the summary counts in the client worlds.
+     * This also initializes other values (randomtickable blocks counter), but they are unused in the client worlds.
+     */
+    @Environment(EnvType.CLIENT)
+    @Inject(method = "fromPacket", at = @At("RETURN"))
+    private void initCounts(PacketByteBuf packetByteBuf, CallbackInfo ci) {
+        this.calculateCounts();
+    }
+}
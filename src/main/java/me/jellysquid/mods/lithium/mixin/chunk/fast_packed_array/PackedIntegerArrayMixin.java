@@ -0,0 +1,170 @@
+package me.jellysquid.mods.lithium.mixin.chunk.fast_packed_array;
+
+import me.jellysquid.mods.lithium.common.world.chunk.BulkPackedIntegerArray;
+import net.minecraft.util.collection.PackedIntegerArray;
+import org.apache.commons.lang3.Validate;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Arrays;
+
+/**
+ * Vanilla locates the word holding an element through a multiply-and-shift by a magic reciprocal, which is needed for
+ * element widths which don't evenly divide 64 bits. For the widths which do (1, 2, 4, 8, 16 and 32 bits, which
+ * includes the 4-bit and 8-bit palettes used by nearly every chunk section), the word index and bit offset can be
+ * found with a single shift and mask. These widths are detected when the array is created (which happens every time
+ * a palette is resized) and take the fast path, while the remaining widths (such as 5 and 6 bits) keep the vanilla
+ * reciprocal multiplication.
+ *
+ * Additionally, a bulk fill operation is provided which works on whole words of the backing storage.
+ */
+@Mixin(PackedIntegerArray.class)
+public class PackedIntegerArrayMixin implements BulkPackedIntegerArray {
+    @Shadow
+    @Final
+    private long[] storage;
+
+    @Shadow
+    @Final
+    private int size;
+
+    @Shadow
+    @Final
+    private int elementBits;
+
+    @Shadow
+    @Final
+    private long maxValue;
+
+    @Shadow
+    @Final
+    private int field_24079;
+
+    /**
+     * log2 of the number of elements per word, or -1 if the element width does not evenly divide a word.
+     */
+    private int wordShift = -1;
+
+    /**
+     * Mask which selects the position of an element within its word.
+     */
+    private int wordIndexMask;
+
+    /**
+     * log2 of the element width in bits.
+     */
+    private int elementShift;
+
+    @Shadow
+    private int method_27284(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject(method = "<init>(II[J)V", at = @At("RETURN"))
+    private void init(int elementBits, int size, long[] storage, CallbackInfo ci) {
+        // Widths which are a power of two always evenly divide a 64-bit word
+        if ((elementBits & (elementBits - 1)) == 0) {
+            this.elementShift = Integer.numberOfTrailingZeros(elementBits);
+            this.wordShift = Integer.numberOfTrailingZeros(this.field_24079);
+            this.wordIndexMask = this.field_24079 - 1;
+        }
+    }
+
+    /**
+     * @reason Use shift and mask for power-of-two element widths
+     * @author MrGrim
+     */
+    @Overwrite
+    public int setAndGetOldValue(int index, int value) {
+        // [VanillaCopy]
+        Validate.inclusiveBetween(0L, this.size - 1, index);
+        Validate.inclusiveBetween(0L, this.maxValue, value);
+
+        int wordIndex = this.getWordIndex(index);
+        int bitIndex = this.getBitIndex(index, wordIndex);
+
+        long word = this.storage[wordIndex];
+
+        this.storage[wordIndex] = word & ~(this.maxValue << bitIndex) | ((long) value & this.maxValue) << bitIndex;
+
+        return (int) (word >> bitIndex & this.maxValue);
+    }
+
+    /**
+     * @reason Use shift and mask for power-of-two element widths
+     * @author MrGrim
+     */
+    @Overwrite
+    public void set(int index, int value) {
+        // [VanillaCopy]
+        Validate.inclusiveBetween(0L, this.size - 1, index);
+        Validate.inclusiveBetween(0L, this.maxValue, value);
+
+        int wordIndex = this.getWordIndex(index);
+        int bitIndex = this.getBitIndex(index, wordIndex);
+
+        long word = this.storage[wordIndex];
+
+        this.storage[wordIndex] = word & ~(this.maxValue << bitIndex) | ((long) value & this.maxValue) << bitIndex;
+    }
+
+    /**
+     * @reason Use shift and mask for power-of-two element widths
+     * @author MrGrim
+     */
+    @Overwrite
+    public int get(int index) {
+        // [VanillaCopy]
+        Validate.inclusiveBetween(0L, this.size - 1, index);
+
+        int wordIndex = this.getWordIndex(index);
+        int bitIndex = this.getBitIndex(index, wordIndex);
+
+        return (int) (this.storage[wordIndex] >> bitIndex & this.maxValue);
+    }
+
+    private int getWordIndex(int index) {
+        if (this.wordShift >= 0) {
+            return index >> this.wordShift;
+        }
+
+        return this.method_27284(index);
+    }
+
+    private int getBitIndex(int index, int wordIndex) {
+        if (this.wordShift >= 0) {
+            return (index & this.wordIndexMask) << this.elementShift;
+        }
+
+        return (index - wordIndex * this.field_24079) * this.elementBits;
+    }
+
+    @Override
+    public void fill(int value) {
+        Validate.inclusiveBetween(0L, this.maxValue, value);
+
+        if (this.storage.length == 0) {
+            return;
+        }
+
+        long word = 0L;
+
+        for (int i = 0; i < this.field_24079; i++) {
+            word |= ((long) value & this.maxValue) << (i * this.elementBits);
+        }
+
+        Arrays.fill(this.storage, word);
+
+        // Keep the unused elements at the end of the last word zeroed, as vanilla never writes to them
+        int remaining = this.size - ((this.storage.length - 1) * this.field_24079);
+
+        if (remaining < this.field_24079) {
+            this.storage[this.storage.length - 1] = word & ((1L << (remaining * this.elementBits)) - 1L);
+        }
+    }
+}
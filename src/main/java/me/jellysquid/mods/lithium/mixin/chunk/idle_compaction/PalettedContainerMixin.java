@@ -0,0 +1,123 @@
+package me.jellysquid.mods.lithium.mixin.chunk.idle_compaction;
+
+import me.jellysquid.mods.lithium.common.world.chunk.BulkPackedIntegerArray;
+import me.jellysquid.mods.lithium.common.world.chunk.CompactablePalettedContainer;
+import me.jellysquid.mods.lithium.common.world.chunk.LithiumHashPalette;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.util.collection.IdList;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.chunk.Palette;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+import java.util.function.Function;
+
+/**
+ * Allows a {@link PalettedContainer} to shrink its palette and data array back down after the values which caused it
+ * to grow have been removed. The container stays a regular container afterwards, so any further modification simply
+ * grows the palette again through the vanilla resize logic.
+ */
+@Mixin(PalettedContainer.class)
+public abstract class PalettedContainerMixin<T> implements CompactablePalettedContainer {
+    private static final ThreadLocal<short[]> idleCompactionArrays = ThreadLocal.withInitial(() -> new short[4096]);
+
+    /**
+     * The smallest number of bits vanilla will ever use for a block palette.
+     */
+    private static final int MIN_PALETTE_BITS = 4;
+
+    /**
+     * The largest number of bits which will still use a local palette. Anything larger uses the global palette.
+     */
+    private static final int MAX_LOCAL_PALETTE_BITS = 8;
+
+    @Shadow
+    private int paletteSize;
+
+    @Shadow
+    private Palette<T> palette;
+
+    @Shadow
+    protected PackedIntegerArray data;
+
+    @Shadow
+    @Final
+    private IdList<T> idList;
+
+    @Shadow
+    @Final
+    private Function<CompoundTag, T> elementDeserializer;
+
+    @Shadow
+    @Final
+    private Function<T, CompoundTag> elementSerializer;
+
+    @Shadow
+    public abstract void lock();
+
+    @Shadow
+    public abstract void unlock();
+
+    @Shadow
+    protected abstract void set(int index, T value);
+
+    @Shadow
+    protected abstract void setPaletteSize(int size);
+
+    @Override
+    public boolean compact() {
+        if (this.paletteSize <= MIN_PALETTE_BITS) {
+            return false;
+        }
+
+        this.lock();
+
+        try {
+            Palette<T> srcPalette = this.palette;
+            PackedIntegerArray srcData = this.data;
+
+            LithiumHashPalette<T> compactedPalette = new LithiumHashPalette<>(this.idList, this.paletteSize, null, this.elementDeserializer, this.elementSerializer);
+
+            // Remapped palette indices are stored with an offset of one so that zero can mark an absent mapping
+            short[] mappings = new short[1 << this.paletteSize];
+            short[] array = idleCompactionArrays.get();
+
+            for (int i = 0; i < array.length; i++) {
+                int value = srcData.get(i);
+                int remappedId = mappings[value];
+
+                if (remappedId == 0) {
+                    remappedId = compactedPalette.getIndex(srcPalette.getByIndex(value)) + 1;
+                    mappings[value] = (short) remappedId;
+                }
+
+                array[i] = (short) (remappedId - 1);
+            }
+
+            int bits = Math.max(MIN_PALETTE_BITS, MathHelper.log2DeBruijn(compactedPalette.getSize()));
+
+            // Nothing would be gained, or we would end up back at the global palette
+            if (bits >= this.paletteSize || bits > MAX_LOCAL_PALETTE_BITS) {
+                return false;
+            }
+
+            this.setPaletteSize(bits);
+
+            if (compactedPalette.getSize() == 1 && this.data instanceof BulkPackedIntegerArray) {
+                // The container only holds a single value, so write it out in whole words
+                ((BulkPackedIntegerArray) this.data).fill(this.palette.getIndex(compactedPalette.getByIndex(0)));
+            } else {
+                for (int i = 0; i < array.length; i++) {
+                    this.set(i, compactedPalette.getByIndex(array[i]));
+                }
+            }
+
+            return true;
+        } finally {
+            this.unlock();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package me.jellysquid.mods.lithium.mixin.chunk.idle_compaction;
+
+import me.jellysquid.mods.lithium.common.world.chunk.CompactablePalettedContainer;
+import me.jellysquid.mods.lithium.common.world.chunk.IdleCompactableChunk;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Periodically scans the loaded chunks of a world for chunks which have not been modified in a long time and shrinks
+ * the block storage of their sections down to the smallest palette which still fits. Chunks which are kept loaded by
+ * tickets for a long time (spawn chunks, force-loaded chunks) otherwise keep the widened data arrays from every block
+ * which was ever placed in them.
+ * <p>
+ * The savings are modest: only the block storage of sections is compacted, and it stays an ordinary palette-backed
+ * array. Light data and heightmaps are left untouched, and no compressed representation is used, as all of these are
+ * read directly from many places (including the lighting thread). A chunk is only considered idle once it has been
+ * loaded and unmodified for {@link #IDLE_TICKS} ticks.
+ */
+@Mixin(ServerChunkManager.class)
+public class ServerChunkManagerMixin {
+    /**
+     * The number of ticks between each scan of the loaded chunks.
+     */
+    private static final int SCAN_INTERVAL = 20;
+
+    /**
+     * The number of ticks a chunk must remain unmodified before it is considered idle.
+     */
+    private static final long IDLE_TICKS = 6000L;
+
+    /**
+     * The maximum number of chunks which will be compacted in a single scan, spreading the work out over many ticks.
+     */
+    private static final int MAX_CHUNKS_PER_SCAN = 32;
+
+    @Shadow
+    @Final
+    public ThreadedAnvilChunkStorage threadedAnvilChunkStorage;
+
+    @Shadow
+    @Final
+    private ServerWorld world;
+
+    private int ticksUntilScan = SCAN_INTERVAL;
+
+    @Inject(method = "tick(Ljava/util/function/BooleanSupplier;)V", at = @At("RETURN"))
+    private void postTick(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
+        if (--this.ticksUntilScan > 0) {
+            return;
+        }
+
+        this.ticksUntilScan = SCAN_INTERVAL;
+
+        long time = this.world.getTime();
+        int remaining = MAX_CHUNKS_PER_SCAN;
+
+        for (ChunkHolder holder : this.threadedAnvilChunkStorage.entryIterator()) {
+            WorldChunk chunk = holder.getWorldChunk();
+
+            if (chunk == null) {
+                continue;
+            }
+
+            IdleCompactableChunk compactable = (IdleCompactableChunk) chunk;
+
+            if (!compactable.needsCompaction() || time - compactable.getLastModifiedTime() < IDLE_TICKS) {
+                continue;
+            }
+
+            for (ChunkSection section : chunk.getSectionArray()) {
+                if (!ChunkSection.isEmpty(section)) {
+                    ((CompactablePalettedContainer) section.getContainer()).compact();
+                }
+            }
+
+            compactable.markCompacted();
+
+            if (--remaining <= 0) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package me.jellysquid.mods.lithium.mixin.chunk.idle_compaction;
+
+import me.jellysquid.mods.lithium.common.world.chunk.IdleCompactableChunk;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(WorldChunk.class)
+public class WorldChunkMixin implements IdleCompactableChunk {
+    @Shadow
+    @Final
+    private World world;
+
+    private long lastModifiedTime;
+
+    private boolean compacted;
+
+    /**
+     * Chunks which have just been loaded or generated are likely to be modified soon (such as the terrain in front of a
+     * player exploring the world), so they are only considered idle once they have been in the world for a while.
+     */
+    @Inject(method = "loadToWorld", at = @At("HEAD"))
+    private void onLoadedToWorld(CallbackInfo ci) {
+        this.lastModifiedTime = this.world.getTime();
+        this.compacted = false;
+    }
+
+    @Inject(method = "setBlockState", at = @At("HEAD"))
+    private void onBlockStateChanged(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir) {
+        this.lastModifiedTime = this.world.getTime();
+        this.compacted = false;
+    }
+
+    @Override
+    public long getLastModifiedTime() {
+        return this.lastModifiedTime;
+    }
+
+    @Override
+    public boolean needsCompaction() {
+        return !this.compacted;
+    }
+
+    @Override
+    public void markCompacted() {
+        this.compacted = true;
+    }
+}
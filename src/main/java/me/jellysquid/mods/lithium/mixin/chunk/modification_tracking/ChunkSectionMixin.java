@@ -0,0 +1,43 @@
+package me.jellysquid.mods.lithium.mixin.chunk.modification_tracking;
+
+import me.jellysquid.mods.lithium.common.world.chunk.ModificationTrackingSection;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.world.chunk.ChunkSection;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Counts the block changes in each chunk section, which allows code to cheaply check whether anything in a section has
+ * changed since it last looked at it. Users of the counter must check {@link ModificationTrackingSection#ENABLED}.
+ */
+@Mixin(ChunkSection.class)
+public class ChunkSectionMixin implements ModificationTrackingSection {
+    private int modificationCount;
+
+    @Override
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
+    @Inject(method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;", at = @At("RETURN"))
+    private void onBlockChanged(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() != state) {
+            this.modificationCount++;
+        }
+    }
+
+    /**
+     * The contents of existing chunk sections are replaced when the client receives chunk data.
+     */
+    @Environment(EnvType.CLIENT)
+    @Inject(method = "fromPacket", at = @At("RETURN"))
+    private void onContentsReplaced(PacketByteBuf packetByteBuf, CallbackInfo ci) {
+        this.modificationCount++;
+    }
+}
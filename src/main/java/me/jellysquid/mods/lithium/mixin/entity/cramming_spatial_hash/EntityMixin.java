@@ -0,0 +1,42 @@
+package me.jellysquid.mods.lithium.mixin.entity.cramming_spatial_hash;
+
+import me.jellysquid.mods.lithium.common.entity.pushing.EntitySpatialHash;
+import me.jellysquid.mods.lithium.common.entity.pushing.SpatialHashedEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Box;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Entity.class)
+public class EntityMixin implements SpatialHashedEntity {
+    private EntitySpatialHash spatialHash;
+
+    private final int[] spatialHashCells = new int[6];
+
+    @Override
+    public EntitySpatialHash getSpatialHash() {
+        return this.spatialHash;
+    }
+
+    @Override
+    public void setSpatialHash(EntitySpatialHash hash) {
+        this.spatialHash = hash;
+    }
+
+    @Override
+    public int[] getSpatialHashCells() {
+        return this.spatialHashCells;
+    }
+
+    /**
+     * Every change to an entity's position goes through this method, so the spatial hash is kept up to date here.
+     */
+    @Inject(method = "setBoundingBox", at = @At("RETURN"))
+    private void onBoundingBoxChanged(Box box, CallbackInfo ci) {
+        if (this.spatialHash != null) {
+            this.spatialHash.onBoundsChanged((Entity) (Object) this, box);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.jellysquid.mods.lithium.mixin.entity.cramming_spatial_hash;
+
+import me.jellysquid.mods.lithium.common.entity.pushing.EntitySpatialHashProvider;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+@Mixin(LivingEntity.class)
+public class LivingEntityMixin {
+    /**
+     * Find the entities to push away and to count for entity cramming through the spatial hash of the world, which
+     * avoids scanning every entity in the surrounding chunk sections.
+     */
+    @Redirect(method = "tickCramming", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/World;getOtherEntities(Lnet/minecraft/entity/Entity;Lnet/minecraft/util/math/Box;Ljava/util/function/Predicate;)Ljava/util/List;"))
+    private List<Entity> getPushableEntities(World world, Entity except, Box box, Predicate<? super Entity> predicate) {
+        if (world instanceof EntitySpatialHashProvider) {
+            return ((EntitySpatialHashProvider) world).getEntitySpatialHash().getOtherEntities(except, box, predicate);
+        }
+
+        return world.getOtherEntities(except, box, predicate);
+    }
+}
@@ -0,0 +1,33 @@
+package me.jellysquid.mods.lithium.mixin.entity.cramming_spatial_hash;
+
+import me.jellysquid.mods.lithium.common.entity.pushing.EntitySpatialHash;
+import me.jellysquid.mods.lithium.common.entity.pushing.EntitySpatialHashProvider;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Keeps the {@link EntitySpatialHash} of the world in sync with the entities loaded in it.
+ */
+@Mixin(ServerWorld.class)
+public class ServerWorldMixin implements EntitySpatialHashProvider {
+    private final EntitySpatialHash entitySpatialHash = new EntitySpatialHash();
+
+    @Override
+    public EntitySpatialHash getEntitySpatialHash() {
+        return this.entitySpatialHash;
+    }
+
+    @Inject(method = "loadEntityUnchecked", at = @At("HEAD"))
+    private void onEntityLoaded(Entity entity, CallbackInfo ci) {
+        this.entitySpatialHash.add(entity);
+    }
+
+    @Inject(method = "unloadEntity", at = @At("HEAD"))
+    private void onEntityUnloaded(Entity entity, CallbackInfo ci) {
+        this.entitySpatialHash.remove(entity);
+    }
+}
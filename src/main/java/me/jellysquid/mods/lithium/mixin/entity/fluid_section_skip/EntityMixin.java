@@ -0,0 +1,61 @@
+package me.jellysquid.mods.lithium.mixin.entity.fluid_section_skip;
+
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import me.jellysquid.mods.lithium.common.world.chunk.BlockSummaryFlags;
+import me.jellysquid.mods.lithium.common.world.chunk.ChunkSectionSummary;
+import net.minecraft.entity.Entity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.tag.Tag;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Every entity checks each tick whether it is being pushed by water or lava, which scans every block its bounding box
+ * touches. Most entities are nowhere near any fluid, so the chunk section summaries are checked first and the scan is
+ * skipped if none of the sections in the area contain any fluid.
+ */
+@Mixin(Entity.class)
+public abstract class EntityMixin {
+    @Shadow
+    public World world;
+
+    @Shadow
+    protected Object2DoubleMap<Tag<Fluid>> fluidHeight;
+
+    @Shadow
+    public abstract Box getBoundingBox();
+
+    @Inject(method = "updateMovementInFluid", at = @At("HEAD"), cancellable = true)
+    private void skipIfNoFluidsNearby(Tag<Fluid> tag, double speed, CallbackInfoReturnable<Boolean> cir) {
+        if (!ChunkSectionSummary.ENABLED) {
+            return;
+        }
+
+        // [VanillaCopy] The area which would be scanned by vanilla
+        Box box = this.getBoundingBox().contract(0.001D);
+        int minX = MathHelper.floor(box.minX);
+        int maxX = MathHelper.ceil(box.maxX);
+        int minY = MathHelper.floor(box.minY);
+        int maxY = MathHelper.ceil(box.maxY);
+        int minZ = MathHelper.floor(box.minZ);
+        int maxZ = MathHelper.ceil(box.maxZ);
+
+        // Let vanilla handle the unloaded case, which doesn't update the fluid height
+        if (!this.world.isRegionLoaded(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return;
+        }
+
+        // The upper bounds are exclusive in vanilla's iteration
+        if (!ChunkSectionSummary.hasAnyInArea(this.world, minX, minY, minZ, maxX - 1, maxY - 1, maxZ - 1, BlockSummaryFlags.FLUIDS)) {
+            // [VanillaCopy] No fluid was found, so the fluid height is zero and the entity is not pushed
+            this.fluidHeight.put(tag, 0.0D);
+            cir.setReturnValue(false);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package me.jellysquid.mods.lithium.mixin.entity.resting_fast_path;
+
+import me.jellysquid.mods.lithium.common.block.BlockShapeHelper;
+import me.jellysquid.mods.lithium.common.world.chunk.ModificationTrackingSection;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Entities resting on the ground still have gravity applied every tick, and so resolve the same downwards movement
+ * against the same block every tick, only to be stopped by it again. Once an entity has been stopped by the block
+ * below it, it is considered to be resting on that block and the result is remembered. As long as the entity tries to
+ * make exactly the same movement from exactly the same position, and the chunk section containing the supporting block
+ * hasn't changed (or been replaced in its chunk), the movement is cancelled again without performing any collision
+ * checks. Only the single section containing the block below the center of the entity's box is tracked.
+ *
+ * Any push or other change to the entity's velocity changes the attempted movement, and any movement changes the
+ * entity's bounding box, both of which end the resting state.
+ */
+@Mixin(Entity.class)
+public abstract class EntityMixin {
+    @Shadow
+    public World world;
+
+    @Shadow
+    public abstract Box getBoundingBox();
+
+    // The chunk section containing the supporting block, or null if the entity is not resting
+    private ChunkSection restingSection;
+    private int restingSectionModificationCount;
+
+    // The position of the supporting block, used to check that the section is still part of the world
+    private int restingX;
+    private int restingY;
+    private int restingZ;
+
+    private Box restingBox;
+    private double restingMovementY;
+
+    @Inject(method = "adjustMovementForCollisions(Lnet/minecraft/util/math/Vec3d;)Lnet/minecraft/util/math/Vec3d;", at = @At("HEAD"), cancellable = true)
+    private void skipCollisionsWhileResting(Vec3d movement, CallbackInfoReturnable<Vec3d> cir) {
+        if (this.restingSection == null) {
+            return;
+        }
+
+        if (movement.x == 0.0D && movement.z == 0.0D && movement.y == this.restingMovementY &&
+                this.getBoundingBox().equals(this.restingBox) && this.isRestingSectionUnchanged()) {
+            cir.setReturnValue(Vec3d.ZERO);
+        } else {
+            this.restingSection = null;
+            this.restingBox = null;
+        }
+    }
+
+    @Inject(method = "adjustMovementForCollisions(Lnet/minecraft/util/math/Vec3d;)Lnet/minecraft/util/math/Vec3d;", at = @At("RETURN"))
+    private void checkResting(Vec3d movement, CallbackInfoReturnable<Vec3d> cir) {
+        // Without modification tracking, there is no way to tell whether the supporting block is still there
+        if (!ModificationTrackingSection.ENABLED) {
+            return;
+        }
+
+        Vec3d result = cir.getReturnValue();
+
+        if (movement.x != 0.0D || movement.z != 0.0D || movement.y >= 0.0D || result.x != 0.0D || result.y != 0.0D || result.z != 0.0D) {
+            return;
+        }
+
+        Box box = this.getBoundingBox();
+
+        //[VanillaCopy] the block below the center of the box, like gravity_check_block_below
+        int x = MathHelper.floor((box.minX + box.maxX) / 2);
+        int y = MathHelper.ceil(box.minY) - 1;
+        int z = MathHelper.floor((box.minZ + box.maxZ) / 2);
+
+        if (World.isHeightInvalid(y)) {
+            return;
+        }
+
+        Chunk chunk = this.world.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+
+        if (chunk == null) {
+            return;
+        }
+
+        ChunkSection section = chunk.getSectionArray()[y >> 4];
+
+        if (ChunkSection.isEmpty(section)) {
+            return;
+        }
+
+        BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+
+        // The shape of these blocks can change without the block itself changing, or depend on the state of the entity
+        if (BlockShapeHelper.hasContextDependentCollisionShape(state)) {
+            return;
+        }
+
+        BlockPos pos = new BlockPos(x, y, z);
+        double remaining = state.getCollisionShape(this.world, pos, ShapeContext.of((Entity) (Object) this))
+                .calculateMaxDistance(Direction.Axis.Y, box.offset(-x, -y, -z), movement.y);
+
+        // Only rest on the block if it alone stops the movement, as other entities below could move away
+        if (Math.abs(remaining) < 1.0E-7D) {
+            this.restingSection = section;
+            this.restingSectionModificationCount = ((ModificationTrackingSection) section).getModificationCount();
+            this.restingBox = box;
+            this.restingMovementY = movement.y;
+
+            this.restingX = x;
+            this.restingY = y;
+            this.restingZ = z;
+        }
+    }
+
+    /**
+     * Checks that the chunk section the entity is resting in has not been modified. The section itself can be swapped
+     * out of its chunk without being modified (such as when the client receives a new copy of the chunk, which may
+     * replace it with an empty section), so the chunk is also checked to still contain the very same section object.
+     */
+    private boolean isRestingSectionUnchanged() {
+        if (((ModificationTrackingSection) this.restingSection).getModificationCount() != this.restingSectionModificationCount) {
+            return false;
+        }
+
+        Chunk chunk = this.world.getChunk(this.restingX >> 4, this.restingZ >> 4, ChunkStatus.FULL, false);
+
+        return chunk != null && chunk.getSectionArray()[this.restingY >> 4] == this.restingSection;
+    }
+}
@@ -0,0 +1,18 @@
+package me.jellysquid.mods.lithium.mixin.shapes.parallel_shape_cache;
+
+import me.jellysquid.mods.lithium.common.shapes.ShapeCacheInitializer;
+import net.minecraft.block.Blocks;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+
+@Mixin(Blocks.class)
+public class BlocksMixin {
+    /**
+     * @reason Initialize the shape caches of block states in parallel
+     * @author MrGrim
+     */
+    @Overwrite
+    public static void refreshShapeCache() {
+        ShapeCacheInitializer.initShapeCaches();
+    }
+}
@@ -0,0 +1,59 @@
+package me.jellysquid.mods.lithium.mixin.shapes.shape_pair_cache;
+
+import me.jellysquid.mods.lithium.common.shapes.cache.VoxelShapeCaches;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Shape occlusion, outline and collision code frequently combines the same pairs of block shapes with each other.
+ * The results of these operations only depend on the (immutable) shapes involved, so they are memoized in lossy caches.
+ */
+@Mixin(VoxelShapes.class)
+public class VoxelShapesMixin {
+    @Inject(method = "matchesAnywhere(Lnet/minecraft/util/shape/VoxelShape;Lnet/minecraft/util/shape/VoxelShape;Lnet/minecraft/util/function/BooleanBiFunction;)Z", at = @At("HEAD"), cancellable = true)
+    private static void getCachedMatch(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<Boolean> cir) {
+        Boolean result = VoxelShapeCaches.MATCHES_ANYWHERE.get(a, b, function);
+
+        if (result != null) {
+            cir.setReturnValue(result);
+        }
+    }
+
+    @Inject(method = "matchesAnywhere(Lnet/minecraft/util/shape/VoxelShape;Lnet/minecraft/util/shape/VoxelShape;Lnet/minecraft/util/function/BooleanBiFunction;)Z", at = @At("RETURN"))
+    private static void cacheMatch(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<Boolean> cir) {
+        VoxelShapeCaches.MATCHES_ANYWHERE.put(a, b, function, cir.getReturnValue());
+    }
+
+    @Inject(method = "combine", at = @At("HEAD"), cancellable = true)
+    private static void getCachedCombination(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<VoxelShape> cir) {
+        VoxelShape result = VoxelShapeCaches.COMBINE.get(a, b, function);
+
+        if (result != null) {
+            cir.setReturnValue(result);
+        }
+    }
+
+    @Inject(method = "combine", at = @At("RETURN"))
+    private static void cacheCombination(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<VoxelShape> cir) {
+        VoxelShapeCaches.COMBINE.put(a, b, function, cir.getReturnValue());
+    }
+
+    @Inject(method = "combineAndSimplify", at = @At("HEAD"), cancellable = true)
+    private static void getCachedSimplifiedCombination(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<VoxelShape> cir) {
+        VoxelShape result = VoxelShapeCaches.COMBINE_AND_SIMPLIFY.get(a, b, function);
+
+        if (result != null) {
+            cir.setReturnValue(result);
+        }
+    }
+
+    @Inject(method = "combineAndSimplify", at = @At("RETURN"))
+    private static void cacheSimplifiedCombination(VoxelShape a, VoxelShape b, BooleanBiFunction function, CallbackInfoReturnable<VoxelShape> cir) {
+        VoxelShapeCaches.COMBINE_AND_SIMPLIFY.put(a, b, function, cir.getReturnValue());
+    }
+}
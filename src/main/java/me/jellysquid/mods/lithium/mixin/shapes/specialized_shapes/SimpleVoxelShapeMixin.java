@@ -0,0 +1,41 @@
+package me.jellysquid.mods.lithium.mixin.shapes.specialized_shapes;
+
+import me.jellysquid.mods.lithium.common.shapes.VoxelBitMask;
+import me.jellysquid.mods.lithium.common.shapes.VoxelShapeCaster;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.shape.SimpleVoxelShape;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import org.spongepowered.asm.mixin.Mixin;
+
+/**
+ * Unions of aligned boxes (such as the shapes of stairs, walls, fences and hoppers) end up as a {@link SimpleVoxelShape}
+ * with a voxel grid of at most 8 voxels along each axis. Testing these shapes for intersection with an entity's box
+ * normally requires merging the point lists of both shapes, so they are instead tested against a {@link VoxelBitMask}
+ * of their voxels, which only takes a few word operations.
+ */
+@Mixin(SimpleVoxelShape.class)
+public abstract class SimpleVoxelShapeMixin extends VoxelShape implements VoxelShapeCaster {
+    private VoxelBitMask bitMask;
+    private boolean bitMaskInitialized;
+
+    private SimpleVoxelShapeMixin() {
+        super(null);
+    }
+
+    @Override
+    public boolean intersects(Box box, double x, double y, double z) {
+        if (!this.bitMaskInitialized) {
+            // The voxels are filled in before the shape is constructed and never change afterwards
+            this.bitMask = VoxelBitMask.create(this.voxels);
+            this.bitMaskInitialized = true;
+        }
+
+        if (this.bitMask != null) {
+            return this.bitMask.intersects(box, x, y, z);
+        }
+
+        return VoxelShapes.matchesAnywhere(this.offset(x, y, z), VoxelShapes.cuboid(box), BooleanBiFunction.AND);
+    }
+}
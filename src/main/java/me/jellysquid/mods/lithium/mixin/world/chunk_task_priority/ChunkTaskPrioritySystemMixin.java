@@ -0,0 +1,42 @@
+package me.jellysquid.mods.lithium.mixin.world.chunk_task_priority;
+
+import me.jellysquid.mods.lithium.common.world.chunk.PlayerMovementChunkPrioritizer;
+import me.jellysquid.mods.lithium.common.world.chunk.PrioritizedChunkTaskSystem;
+import me.jellysquid.mods.lithium.common.world.chunk.PrioritizedLevelQueue;
+import net.minecraft.server.world.ChunkTaskPrioritySystem;
+import net.minecraft.server.world.LevelPrioritizedQueue;
+import net.minecraft.util.thread.MessageListener;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+@Mixin(ChunkTaskPrioritySystem.class)
+public class ChunkTaskPrioritySystemMixin implements PrioritizedChunkTaskSystem {
+    @Shadow
+    @Final
+    private Map<MessageListener<?>, LevelPrioritizedQueue<?>> queues;
+
+    private final PlayerMovementChunkPrioritizer prioritizer = new PlayerMovementChunkPrioritizer();
+
+    /**
+     * All queues (world generation, lighting and main thread tasks) share the same prioritizer.
+     */
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void init(List<MessageListener<?>> listeners, Executor executor, int maxQueues, CallbackInfo ci) {
+        for (LevelPrioritizedQueue<?> queue : this.queues.values()) {
+            ((PrioritizedLevelQueue) queue).setPrioritizer(this.prioritizer);
+        }
+    }
+
+    @Override
+    public PlayerMovementChunkPrioritizer getPrioritizer() {
+        return this.prioritizer;
+    }
+}
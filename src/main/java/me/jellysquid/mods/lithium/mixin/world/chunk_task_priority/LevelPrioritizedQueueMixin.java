@@ -0,0 +1,41 @@
+package me.jellysquid.mods.lithium.mixin.world.chunk_task_priority;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import me.jellysquid.mods.lithium.common.world.chunk.PlayerMovementChunkPrioritizer;
+import me.jellysquid.mods.lithium.common.world.chunk.PrioritizedLevelQueue;
+import net.minecraft.server.world.LevelPrioritizedQueue;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Vanilla always takes the oldest chunk from the lowest non-empty level. This patch keeps the level ordering intact,
+ * but picks the chunk within that level which lies furthest in the direction the nearest player is moving. Only the
+ * selection of the entry is changed, so all of vanilla's level bookkeeping stays untouched.
+ * <p>
+ * The queue is only ever polled from the sorter's own thread, so the selected key needs no synchronization.
+ */
+@Mixin(LevelPrioritizedQueue.class)
+public class LevelPrioritizedQueueMixin implements PrioritizedLevelQueue {
+    private PlayerMovementChunkPrioritizer prioritizer;
+
+    private long selectedKey;
+
+    @Override
+    public void setPrioritizer(PlayerMovementChunkPrioritizer prioritizer) {
+        this.prioritizer = prioritizer;
+    }
+
+    @Redirect(method = "poll", at = @At(value = "INVOKE", target = "Lit/unimi/dsi/fastutil/longs/Long2ObjectLinkedOpenHashMap;firstLongKey()J", remap = false))
+    private long redirectSelectKey(Long2ObjectLinkedOpenHashMap<?> queue) {
+        long key = this.prioritizer == null ? queue.firstLongKey() : this.prioritizer.selectNext(queue);
+        this.selectedKey = key;
+
+        return key;
+    }
+
+    @Redirect(method = "poll", at = @At(value = "INVOKE", target = "Lit/unimi/dsi/fastutil/longs/Long2ObjectLinkedOpenHashMap;removeFirst()Ljava/lang/Object;", remap = false))
+    private Object redirectRemoveSelected(Long2ObjectLinkedOpenHashMap<?> queue) {
+        return queue.remove(this.selectedKey);
+    }
+}
@@ -0,0 +1,33 @@
+package me.jellysquid.mods.lithium.mixin.world.chunk_task_priority;
+
+import me.jellysquid.mods.lithium.common.world.chunk.PrioritizedChunkTaskSystem;
+import net.minecraft.server.world.ChunkTaskPrioritySystem;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.function.BooleanSupplier;
+
+@Mixin(ThreadedAnvilChunkStorage.class)
+public class ThreadedAnvilChunkStorageMixin {
+    @Shadow
+    @Final
+    private ServerWorld world;
+
+    @Shadow
+    @Final
+    private ChunkTaskPrioritySystem chunkTaskPrioritySystem;
+
+    /**
+     * Publish the current player movement to the chunk task sorter once per tick.
+     */
+    @Inject(method = "tick(Ljava/util/function/BooleanSupplier;)V", at = @At("HEAD"))
+    private void updatePlayerMovement(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
+        ((PrioritizedChunkTaskSystem) this.chunkTaskPrioritySystem).getPrioritizer().update(this.world.getPlayers());
+    }
+}
@@ -0,0 +1,31 @@
+package me.jellysquid.mods.lithium.mixin.world.explosion_batching;
+
+import me.jellysquid.mods.lithium.common.world.explosions.ExplosionCache;
+import me.jellysquid.mods.lithium.common.world.explosions.ExplosionCacheHolder;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(World.class)
+public class WorldMixin implements ExplosionCacheHolder {
+    private final ExplosionCache explosionCache = new ExplosionCache((World) (Object) this);
+
+    @Override
+    public ExplosionCache getExplosionCache() {
+        return this.explosionCache;
+    }
+
+    /**
+     * Any change to the world may change the outcome of an explosion, so the cached data must be discarded.
+     */
+    @Inject(method = "setBlockState(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;II)Z", at = @At("RETURN"))
+    private void onBlockChanged(BlockPos pos, BlockState state, int flags, int maxUpdateDepth, CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValue()) {
+            this.explosionCache.invalidate();
+        }
+    }
+}
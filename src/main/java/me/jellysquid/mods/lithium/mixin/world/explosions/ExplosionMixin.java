@@ -1,24 +1,30 @@
 package me.jellysquid.mods.lithium.mixin.world.explosions;
 
+import me.jellysquid.mods.lithium.common.world.explosions.ExplosionCache;
+import me.jellysquid.mods.lithium.common.world.explosions.ExplosionCacheHolder;
+import me.jellysquid.mods.lithium.common.world.explosions.ExposureSamples;
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.block.ShapeContext;
 import net.minecraft.enchantment.ProtectionEnchantment;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.TntEntity;
 import net.minecraft.entity.damage.DamageSource;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.explosion.EntityExplosionBehavior;
 import net.minecraft.world.explosion.Explosion;
 import net.minecraft.world.explosion.ExplosionBehavior;
 import org.spongepowered.asm.mixin.Final;
@@ -35,6 +41,13 @@ import java.util.Random;
 
 @Mixin(Explosion.class)
 public abstract class ExplosionMixin {
+    // The number of rays cast by every explosion, which are fired from the surface of a 16x16x16 volume
+    private static final int RAY_COUNT = (16 * 16 * 16) - (14 * 14 * 14);
+
+    // The x/y/z step vectors for each ray, stored in the order vanilla fires the rays in. This order must be preserved
+    // as every ray consumes a random number when it is cast.
+    private static final double[] RAY_STEPS = createRaySteps();
+
     @Shadow
     @Final
     private float power;
@@ -66,11 +79,6 @@ public abstract class ExplosionMixin {
     @Shadow
     public abstract DamageSource getDamageSource();
 
-    @Shadow
-    public static float getExposure(Vec3d self, Entity entity) {
-        throw new UnsupportedOperationException();
-    }
-
     @Shadow
     @Final
     private Map<PlayerEntity, Vec3d> affectedPlayers;
@@ -88,6 +96,11 @@ public abstract class ExplosionMixin {
     // The chunk belonging to prevChunkPos.
     private Chunk prevChunk;
 
+    // The resistance of every non-air block stepped through by any ray so far. Rays leave the origin in a dense bundle
+    // and pass through many of the same blocks before diverging, so this avoids querying the explosion behavior
+    // repeatedly for the same block.
+    private Long2FloatOpenHashMap resistanceCache;
+
     /**
      * @reason Optimizations for explosions
      * @author JellySquid
@@ -106,9 +119,49 @@ public abstract class ExplosionMixin {
         // compared to a memory allocation and associated overhead of hashing real objects in a set.
         final LongOpenHashSet touched = new LongOpenHashSet(6 * 6 * 6);
 
+        this.resistanceCache = this.createResistanceCache();
+
         final Random random = this.world.random;
+        final double[] steps = RAY_STEPS;
 
         // Explosions work by casting many rays through the world from the origin of the explosion
+        for (int i = 0; i < steps.length; i += 3) {
+            this.performRayCast(random, steps[i], steps[i + 1], steps[i + 2], touched);
+        }
+
+        this.resistanceCache = null;
+
+        // We can now iterate back over the set of positions we modified and re-build BlockPos objects from them
+        // This will only allocate as many objects as there are in the set, where otherwise we would allocate them
+        // each step of a every ray.
+        List<BlockPos> affectedBlocks = this.affectedBlocks;
+
+        LongIterator it = touched.iterator();
+
+        while (it.hasNext()) {
+            affectedBlocks.add(BlockPos.fromLong(it.nextLong()));
+        }
+
+        this.damageEntities();
+    }
+
+    private Long2FloatOpenHashMap createResistanceCache() {
+        // If the resistance of blocks doesn't depend on what exploded, other explosions in this tick can share the
+        // results as long as the world doesn't change in between
+        if (ExplosionCacheHolder.ENABLED && this.hasSharedBehavior()) {
+            return ((ExplosionCacheHolder) this.world).getExplosionCache().getResistances();
+        }
+
+        Long2FloatOpenHashMap cache = new Long2FloatOpenHashMap(6 * 6 * 6);
+        cache.defaultReturnValue(Float.NaN);
+
+        return cache;
+    }
+
+    private static double[] createRaySteps() {
+        double[] steps = new double[RAY_COUNT * 3];
+        int i = 0;
+
         for (int rayX = 0; rayX < 16; ++rayX) {
             boolean xPlane = rayX == 0 || rayX == 15;
 
@@ -124,50 +177,40 @@ public abstract class ExplosionMixin {
                         double vecY = (((float) rayY / 15.0F) * 2.0F) - 1.0F;
                         double vecZ = (((float) rayZ / 15.0F) * 2.0F) - 1.0F;
 
-                        this.performRayCast(random, vecX, vecY, vecZ, touched);
+                        double dist = Math.sqrt((vecX * vecX) + (vecY * vecY) + (vecZ * vecZ));
+
+                        steps[i++] = (vecX / dist) * 0.3D;
+                        steps[i++] = (vecY / dist) * 0.3D;
+                        steps[i++] = (vecZ / dist) * 0.3D;
                     }
                 }
             }
         }
 
-        // We can now iterate back over the set of positions we modified and re-build BlockPos objects from them
-        // This will only allocate as many objects as there are in the set, where otherwise we would allocate them
-        // each step of a every ray.
-        List<BlockPos> affectedBlocks = this.affectedBlocks;
-
-        LongIterator it = touched.iterator();
-
-        while (it.hasNext()) {
-            affectedBlocks.add(BlockPos.fromLong(it.nextLong()));
-        }
-
-        this.damageEntities();
+        return steps;
     }
 
-    private void performRayCast(Random random, double vecX, double vecY, double vecZ, LongOpenHashSet touched) {
-        double dist = Math.sqrt((vecX * vecX) + (vecY * vecY) + (vecZ * vecZ));
-
-        double normX = vecX / dist;
-        double normY = vecY / dist;
-        double normZ = vecZ / dist;
-
+    private void performRayCast(Random random, double stepX, double stepY, double stepZ, LongOpenHashSet touched) {
         float strength = this.power * (0.7F + (random.nextFloat() * 0.6F));
 
-        double stepX = this.x;
-        double stepY = this.y;
-        double stepZ = this.z;
+        double posX = this.x;
+        double posY = this.y;
+        double posZ = this.z;
 
         int prevX = Integer.MIN_VALUE;
         int prevY = Integer.MIN_VALUE;
         int prevZ = Integer.MIN_VALUE;
 
+        long prevSection = Long.MIN_VALUE;
+        boolean prevSectionEmpty = false;
+
         float prevResistance = 0.0F;
 
         // Step through the ray until it is finally stopped
         while (strength > 0.0F) {
-            int blockX = MathHelper.floor(stepX);
-            int blockY = MathHelper.floor(stepY);
-            int blockZ = MathHelper.floor(stepZ);
+            int blockX = MathHelper.floor(posX);
+            int blockY = MathHelper.floor(posY);
+            int blockZ = MathHelper.floor(posZ);
 
             float resistance;
 
@@ -176,7 +219,20 @@ public abstract class ExplosionMixin {
             // aliasing and sampling, which is unacceptable for our purposes. As a band-aid, we can simply re-use the
             // previous result and get a decent boost.
             if (prevX != blockX || prevY != blockY || prevZ != blockZ) {
-                resistance = this.traverseBlock(strength, blockX, blockY, blockZ, touched);
+                long section = BlockPos.asLong(blockX >> 4, blockY >> 4, blockZ >> 4);
+
+                // Only look at the chunk section once each time the ray enters it. While the ray is inside an empty
+                // section, every block can be treated as air without needing to look anything up.
+                if (section != prevSection) {
+                    prevSection = section;
+                    prevSectionEmpty = this.isSectionEmpty(blockX, blockY, blockZ);
+                }
+
+                if (prevSectionEmpty) {
+                    resistance = this.traverseAir(strength, blockX, blockY, blockZ, touched);
+                } else {
+                    resistance = this.traverseBlock(strength, blockX, blockY, blockZ, touched);
+                }
 
                 prevX = blockX;
                 prevY = blockY;
@@ -191,10 +247,66 @@ public abstract class ExplosionMixin {
             // Apply a constant fall-off
             strength -= 0.22500001F;
 
-            stepX += normX * 0.3D;
-            stepY += normY * 0.3D;
-            stepZ += normZ * 0.3D;
+            posX += stepX;
+            posY += stepY;
+            posZ += stepZ;
+        }
+    }
+
+    /**
+     * @return True if the chunk section containing the given block is known to only contain air
+     */
+    private boolean isSectionEmpty(int blockX, int blockY, int blockZ) {
+        // Positions outside the world take a separate path in traverseBlock
+        if (World.isHeightInvalid(blockY)) {
+            return false;
         }
+
+        Chunk chunk = this.getChunk(blockX >> 4, blockZ >> 4);
+
+        return chunk == null || ChunkSection.isEmpty(chunk.getSectionArray()[blockY >> 4]);
+    }
+
+    private Chunk getChunk(int chunkX, int chunkZ) {
+        // Avoid calling into the chunk manager as much as possible through managing chunks locally
+        if (this.prevChunkX != chunkX || this.prevChunkZ != chunkZ) {
+            this.prevChunk = this.world.getChunk(chunkX, chunkZ);
+
+            this.prevChunkX = chunkX;
+            this.prevChunkZ = chunkZ;
+        }
+
+        return this.prevChunk;
+    }
+
+    /**
+     * Called for every step made by a ray being cast by an explosion through a block which is known to be air.
+     * @see ExplosionMixin#traverseBlock(float, int, int, int, LongOpenHashSet)
+     */
+    private float traverseAir(float strength, int blockX, int blockY, int blockZ, LongOpenHashSet touched) {
+        BlockPos pos = this.cachedPos.set(blockX, blockY, blockZ);
+        BlockState blockState = Blocks.AIR.getDefaultState();
+
+        float totalResistance;
+
+        // The vanilla behaviors never give air any resistance, so we don't need to ask them
+        if (this.hasVanillaBehavior()) {
+            totalResistance = 0.0F;
+        } else {
+            totalResistance = getRayResistance(this.behavior.getBlastResistance((Explosion) (Object) this, this.world, pos, blockState, Fluids.EMPTY.getDefaultState()));
+        }
+
+        float reducedStrength = strength - totalResistance;
+
+        if (reducedStrength > 0.0F) {
+            long key = pos.asLong();
+
+            if (!touched.contains(key) && this.behavior.canDestroyBlock((Explosion) (Object) this, this.world, pos, blockState, reducedStrength)) {
+                touched.add(key);
+            }
+        }
+
+        return totalResistance;
     }
 
     /**
@@ -217,67 +329,232 @@ public abstract class ExplosionMixin {
             return 0.0F;
         }
 
+        long key = pos.asLong();
 
-        int chunkX = blockX >> 4;
-        int chunkZ = blockZ >> 4;
+        // The blocks of the world can't change while rays are being cast, so the resistance of any block only needs
+        // to be calculated by the first ray to pass through it
+        float totalResistance = this.resistanceCache.get(key);
+        BlockState blockState = null;
 
-        // Avoid calling into the chunk manager as much as possible through managing chunks locally
-        if (this.prevChunkX != chunkX || this.prevChunkZ != chunkZ) {
-            this.prevChunk = this.world.getChunk(chunkX, chunkZ);
+        if (Float.isNaN(totalResistance)) {
+            blockState = this.getBlockState(blockX, blockY, blockZ);
 
-            this.prevChunkX = chunkX;
-            this.prevChunkZ = chunkZ;
+            // Rather than query the fluid state from the container as we just did with the block state, we can
+            // simply ask the block state we retrieved what fluid it has. This is exactly what the call would
+            // do anyways, except that it would have to retrieve the block state a second time, adding overhead.
+            totalResistance = getRayResistance(this.behavior.getBlastResistance((Explosion) (Object) this, this.world, pos, blockState, blockState.getFluidState()));
+
+            this.resistanceCache.put(key, totalResistance);
         }
 
-        final Chunk chunk = this.prevChunk;
+        // Check if this ray is still strong enough to break blocks, and if so, add this position to the set
+        // of positions to destroy. If an earlier ray already did so, there's nothing more to do.
+        float reducedStrength = strength - totalResistance;
 
-        BlockState blockState = Blocks.AIR.getDefaultState();
-        float totalResistance = 0.0F;
-        Optional<Float> blastResistance;
-
-        labelGetBlastResistance:
-        {
-            // If the chunk is missing or out of bounds, assume that it is air
-            if (chunk != null) {
-                // We operate directly on chunk sections to avoid interacting with BlockPos and to squeeze out as much
-                // performance as possible here
-                ChunkSection section = chunk.getSectionArray()[blockY >> 4];
-
-                // If the section doesn't exist or it's empty, assume that the block is air
-                if (section != null && !section.isEmpty()) {
-                    // Retrieve the block state from the chunk section directly to avoid associated overhead
-                    blockState = section.getBlockState(blockX & 15, blockY & 15, blockZ & 15);
-
-                    // If the block state is air, it cannot have fluid or any kind of resistance, so just leave
-                    if (blockState.getBlock() != Blocks.AIR) {
-                        // Rather than query the fluid state from the container as we just did with the block state, we can
-                        // simply ask the block state we retrieved what fluid it has. This is exactly what the call would
-                        // do anyways, except that it would have to retrieve the block state a second time, adding overhead.
-                        FluidState fluidState = blockState.getFluidState();
-
-                        // Get the explosion resistance like vanilla
-                        blastResistance = this.behavior.getBlastResistance((Explosion) (Object) this, this.world, pos, blockState, fluidState);
-                        break labelGetBlastResistance;
+        if (reducedStrength > 0.0F && !touched.contains(key)) {
+            if (blockState == null) {
+                blockState = this.getBlockState(blockX, blockY, blockZ);
+            }
+
+            if (this.behavior.canDestroyBlock((Explosion) (Object) this, this.world, pos, blockState, reducedStrength)) {
+                touched.add(key);
+            }
+        }
+
+        return totalResistance;
+    }
+
+    private BlockState getBlockState(int blockX, int blockY, int blockZ) {
+        final Chunk chunk = this.getChunk(blockX >> 4, blockZ >> 4);
+
+        // If the chunk is missing or out of bounds, assume that it is air
+        if (chunk != null) {
+            // We operate directly on chunk sections to avoid interacting with BlockPos and to squeeze out as much
+            // performance as possible here
+            ChunkSection section = chunk.getSectionArray()[blockY >> 4];
+
+            // If the section doesn't exist or it's empty, assume that the block is air
+            if (!ChunkSection.isEmpty(section)) {
+                // Retrieve the block state from the chunk section directly to avoid associated overhead
+                return section.getBlockState(blockX & 15, blockY & 15, blockZ & 15);
+            }
+        }
+
+        return Blocks.AIR.getDefaultState();
+    }
+
+    private boolean hasVanillaBehavior() {
+        Class<?> type = this.behavior.getClass();
+
+        return type == ExplosionBehavior.class || type == EntityExplosionBehavior.class;
+    }
+
+    /**
+     * @return True if this explosion's behavior treats blocks the same way as the default behavior would, regardless
+     * of what exploded
+     */
+    private boolean hasSharedBehavior() {
+        Class<?> type = this.behavior.getClass();
+
+        return type == ExplosionBehavior.class || (type == EntityExplosionBehavior.class && this.entity.getClass() == TntEntity.class);
+    }
+
+    private float getCachedExposure(Vec3d selfPos, Entity entity) {
+        ExplosionCache cache = ExplosionCacheHolder.ENABLED ? ((ExplosionCacheHolder) this.world).getExplosionCache() : null;
+
+        if (cache != null) {
+            float exposure = cache.getExposure(selfPos, entity);
+
+            if (!Float.isNaN(exposure)) {
+                return exposure;
+            }
+        }
+
+        float exposure = this.calculateExposure(selfPos, entity);
+
+        if (cache != null) {
+            cache.putExposure(entity, exposure);
+        }
+
+        return exposure;
+    }
+
+    /**
+     * Equivalent to {@link Explosion#getExposure(Vec3d, Entity)}, but walks each ray through the world's chunk sections
+     * directly using the chunk cache of this explosion. Unlike the generic raycasting code, no objects are allocated
+     * for rays which only pass through blocks without a collision shape.
+     */
+    private float calculateExposure(Vec3d source, Entity entity) {
+        Box box = entity.getBoundingBox();
+        ExposureSamples samples = ExposureSamples.get(box);
+
+        if (samples.isEmpty()) {
+            return 0.0F;
+        }
+
+        ShapeContext context = ShapeContext.of(entity);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        int misses = 0;
+
+        for (float k : samples.stepsX) {
+            double startX = MathHelper.lerp(k, box.minX, box.maxX) + samples.offsetX;
+
+            for (float l : samples.stepsY) {
+                double startY = MathHelper.lerp(l, box.minY, box.maxY);
+
+                for (float m : samples.stepsZ) {
+                    double startZ = MathHelper.lerp(m, box.minZ, box.maxZ) + samples.offsetZ;
+
+                    if (!this.raycastCollides(startX, startY, startZ, source, context, pos)) {
+                        misses++;
                     }
                 }
             }
-            blastResistance = this.behavior.getBlastResistance((Explosion) (Object) this, this.world, pos, Blocks.AIR.getDefaultState(), Fluids.EMPTY.getDefaultState());
         }
-        // Calculate how much this block will resist an explosion's ray
-        if (blastResistance.isPresent()) {
-            totalResistance = (blastResistance.get() + 0.3F) * 0.3F;
+
+        return (float) misses / (float) samples.getSampleCount();
+    }
+
+    // [VanillaCopy] BlockView#raycast(RaycastContext, BiFunction, Function)
+    private boolean raycastCollides(double startX, double startY, double startZ, Vec3d end, ShapeContext context, BlockPos.Mutable pos) {
+        if (startX == end.x && startY == end.y && startZ == end.z) {
+            return false;
         }
 
-        // Check if this ray is still strong enough to break blocks, and if so, add this position to the set
-        // of positions to destroy
-        float reducedStrength = strength - totalResistance;
-        if (reducedStrength > 0.0F) {
-            if (this.behavior.canDestroyBlock((Explosion) (Object) this, this.world, pos, blockState, reducedStrength)) {
-                touched.add(pos.asLong());
+        double endX = MathHelper.lerp(-1.0E-7D, end.x, startX);
+        double endY = MathHelper.lerp(-1.0E-7D, end.y, startY);
+        double endZ = MathHelper.lerp(-1.0E-7D, end.z, startZ);
+
+        double fromX = MathHelper.lerp(-1.0E-7D, startX, end.x);
+        double fromY = MathHelper.lerp(-1.0E-7D, startY, end.y);
+        double fromZ = MathHelper.lerp(-1.0E-7D, startZ, end.z);
+
+        int blockX = MathHelper.floor(fromX);
+        int blockY = MathHelper.floor(fromY);
+        int blockZ = MathHelper.floor(fromZ);
+
+        if (this.collidesWithRay(blockX, blockY, blockZ, startX, startY, startZ, end, context, pos)) {
+            return true;
+        }
+
+        double dirX = endX - fromX;
+        double dirY = endY - fromY;
+        double dirZ = endZ - fromZ;
+
+        int signX = MathHelper.sign(dirX);
+        int signY = MathHelper.sign(dirY);
+        int signZ = MathHelper.sign(dirZ);
+
+        double stepX = signX == 0 ? Double.MAX_VALUE : (double) signX / dirX;
+        double stepY = signY == 0 ? Double.MAX_VALUE : (double) signY / dirY;
+        double stepZ = signZ == 0 ? Double.MAX_VALUE : (double) signZ / dirZ;
+
+        double tX = stepX * (signX > 0 ? 1.0D - MathHelper.fractionalPart(fromX) : MathHelper.fractionalPart(fromX));
+        double tY = stepY * (signY > 0 ? 1.0D - MathHelper.fractionalPart(fromY) : MathHelper.fractionalPart(fromY));
+        double tZ = stepZ * (signZ > 0 ? 1.0D - MathHelper.fractionalPart(fromZ) : MathHelper.fractionalPart(fromZ));
+
+        while (tX <= 1.0D || tY <= 1.0D || tZ <= 1.0D) {
+            if (tX < tY) {
+                if (tX < tZ) {
+                    blockX += signX;
+                    tX += stepX;
+                } else {
+                    blockZ += signZ;
+                    tZ += stepZ;
+                }
+            } else if (tY < tZ) {
+                blockY += signY;
+                tY += stepY;
+            } else {
+                blockZ += signZ;
+                tZ += stepZ;
+            }
+
+            if (this.collidesWithRay(blockX, blockY, blockZ, startX, startY, startZ, end, context, pos)) {
+                return true;
             }
         }
 
-        return totalResistance;
+        return false;
+    }
+
+    /**
+     * Checks whether the collision shape of a block stepped through by an exposure ray is hit by it. Fluids are ignored
+     * like vanilla does for these rays.
+     */
+    private boolean collidesWithRay(int blockX, int blockY, int blockZ, double startX, double startY, double startZ, Vec3d end, ShapeContext context, BlockPos.Mutable pos) {
+        // Blocks outside the world are void air, which has no collision shape
+        if (World.isHeightInvalid(blockY)) {
+            return false;
+        }
+
+        BlockState blockState = this.getBlockState(blockX, blockY, blockZ);
+
+        if (blockState.isAir()) {
+            return false;
+        }
+
+        VoxelShape shape = blockState.getCollisionShape(this.world, pos.set(blockX, blockY, blockZ), context);
+
+        if (shape.isEmpty()) {
+            return false;
+        }
+
+        // Only rays which actually reach a solid block need to create any objects
+        return shape.raycast(new Vec3d(startX, startY, startZ), end, pos) != null;
+    }
+
+    /**
+     * @return The amount by which a ray is weakened by a block with the given blast resistance
+     */
+    private static float getRayResistance(Optional<Float> blastResistance) {
+        // Calculate how much this block will resist an explosion's ray
+        if (blastResistance.isPresent()) {
+            return (blastResistance.get() + 0.3F) * 0.3F;
+        }
+
+        return 0.0F;
     }
 
     // [VanillaCopy] Explosion#collectBlocksAndDamageEntities()
@@ -322,7 +599,7 @@ public abstract class ExplosionMixin {
             distYSq = distYSq / dist;
             distZSq = distZSq / dist;
 
-            double exposure = getExposure(selfPos, entity);
+            double exposure = this.getCachedExposure(selfPos, entity);
             double damage = (1.0D - damageScale) * exposure;
 
             entity.damage(this.getDamageSource(), (int) (((((damage * damage) + damage) / 2.0D) * 7.0D * (double) range) + 1.0D));
@@ -0,0 +1,108 @@
+package me.jellysquid.mods.lithium.mixin.world.light_batching;
+
+import me.jellysquid.mods.lithium.common.world.lighting.BatchedLightingProvider;
+import me.jellysquid.mods.lithium.common.world.lighting.LightUpdateBatcher;
+import net.minecraft.server.world.ServerLightingProvider;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkProvider;
+import net.minecraft.world.chunk.light.LightingProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Every block change which could affect light enqueues its own task to the lighting thread in vanilla, which floods
+ * the lighting executor with thousands of tiny tasks during mass edits such as explosions or large piston contraptions.
+ * This patch collects the checks made on the server thread into one batch per chunk section (removing duplicate
+ * positions) and hands each batch to the lighting thread as a single task.
+ * <p>
+ * To keep the order of light operations intact, pending batches are dispatched before any other task is enqueued on
+ * the lighting provider, and at the start of every lighting tick. Checks made from other threads are enqueued directly
+ * like in vanilla.
+ */
+@Mixin(ServerLightingProvider.class)
+public abstract class ServerLightingProviderMixin extends LightingProvider implements BatchedLightingProvider {
+    private final LightUpdateBatcher batcher = new LightUpdateBatcher();
+
+    /**
+     * The lighting provider is created on the server thread, which is the only thread whose checks will be batched.
+     */
+    private final Thread serverThread = Thread.currentThread();
+
+    private boolean isFlushing;
+
+    private ServerLightingProviderMixin(ChunkProvider chunkProvider, boolean hasBlockLight, boolean hasSkyLight) {
+        super(chunkProvider, hasBlockLight, hasSkyLight);
+    }
+
+    @Shadow
+    protected abstract void enqueue(int x, int z, ServerLightingProvider.Stage stage, Runnable task);
+
+    /**
+     * @reason Batch light checks per chunk section
+     * @author MrGrim
+     */
+    @Overwrite
+    public void checkBlock(BlockPos pos) {
+        if (Thread.currentThread() != this.serverThread) {
+            // [VanillaCopy]
+            BlockPos immutablePos = pos.toImmutable();
+
+            this.enqueue(pos.getX() >> 4, pos.getZ() >> 4, ServerLightingProvider.Stage.POST_UPDATE, Util.debugRunnable(() -> {
+                super.checkBlock(immutablePos);
+            }, () -> "checkBlock " + immutablePos));
+
+            return;
+        }
+
+        this.batcher.add(pos);
+    }
+
+    @Inject(method = "enqueue(IILjava/util/function/IntSupplier;Lnet/minecraft/server/world/ServerLightingProvider$Stage;Ljava/lang/Runnable;)V", at = @At("HEAD"))
+    private void preEnqueue(int x, int z, IntSupplier completedLevelSupplier, ServerLightingProvider.Stage stage, Runnable task, CallbackInfo ci) {
+        if (!this.isFlushing && Thread.currentThread() == this.serverThread) {
+            this.flushBatches();
+        }
+    }
+
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void preTick(CallbackInfo ci) {
+        this.flushBatches();
+    }
+
+    private void flushBatches() {
+        if (this.batcher.isEmpty()) {
+            return;
+        }
+
+        this.isFlushing = true;
+
+        try {
+            this.batcher.flush((sectionPos, positions, dispatchTime) -> {
+                this.enqueue(ChunkSectionPos.unpackX(sectionPos), ChunkSectionPos.unpackZ(sectionPos), ServerLightingProvider.Stage.POST_UPDATE, Util.debugRunnable(() -> {
+                    BlockPos.Mutable pos = new BlockPos.Mutable();
+
+                    for (long packed : positions) {
+                        super.checkBlock(pos.set(packed));
+                    }
+
+                    this.batcher.onBatchProcessed(dispatchTime);
+                }, () -> "checkBlock batch " + ChunkSectionPos.from(sectionPos) + " (" + positions.length + " positions)"));
+            });
+        } finally {
+            this.isFlushing = false;
+        }
+    }
+
+    @Override
+    public LightUpdateBatcher getLightUpdateBatcher() {
+        return this.batcher;
+    }
+}
@@ -0,0 +1,165 @@
+package me.jellysquid.mods.lithium.mixin.world.random_tick_index;
+
+import me.jellysquid.mods.lithium.common.world.chunk.RandomTickableSection;
+import net.minecraft.block.BlockState;
+import net.minecraft.world.chunk.ChunkSection;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a compact index of all positions in the section which receive random ticks. The index is only built once the
+ * section is random ticked for the first time, so sections which are never ticked (such as those of chunks which are
+ * still being generated) don't pay for maintaining it. Afterwards, it is updated incrementally on every block change.
+ */
+@Mixin(ChunkSection.class)
+public abstract class ChunkSectionMixin implements RandomTickableSection {
+    /**
+     * The number of indexed positions above which the slot table is allocated. Below this, finding the slot of a
+     * position by scanning the index is cheap enough, and most sections never grow this large.
+     */
+    private static final int SLOT_TABLE_THRESHOLD = 512;
+
+    @Shadow
+    public abstract BlockState getBlockState(int x, int y, int z);
+
+    /**
+     * The packed positions of all randomly tickable blocks, or null if the index has not been built yet.
+     */
+    private short[] randomTickablePositions;
+
+    /**
+     * The slot in {@link #randomTickablePositions} of each indexed position, which allows positions to be removed from
+     * the index without searching for them. The values for positions which aren't indexed are meaningless. This is
+     * only allocated while the index holds more than {@link #SLOT_TABLE_THRESHOLD} positions, otherwise null.
+     */
+    private short[] randomTickableSlots;
+
+    private int randomTickableCount;
+
+    @Override
+    public int getRandomTickableCount() {
+        if (this.randomTickablePositions == null) {
+            this.buildRandomTickIndex();
+        }
+
+        return this.randomTickableCount;
+    }
+
+    @Override
+    public int getRandomTickablePosition(int slot) {
+        return this.randomTickablePositions[slot];
+    }
+
+    private void buildRandomTickIndex() {
+        this.randomTickablePositions = new short[16];
+        this.randomTickableSlots = null;
+        this.randomTickableCount = 0;
+
+        for (int i = 0; i < 4096; i++) {
+            if (isRandomlyTickable(this.getBlockState(i & 15, i >> 8 & 15, i >> 4 & 15))) {
+                this.addRandomTickablePosition(i);
+            }
+        }
+    }
+
+    private void addRandomTickablePosition(int pos) {
+        if (this.randomTickableCount >= this.randomTickablePositions.length) {
+            this.randomTickablePositions = Arrays.copyOf(this.randomTickablePositions, this.randomTickablePositions.length * 2);
+        }
+
+        if (this.randomTickableSlots != null) {
+            this.randomTickableSlots[pos] = (short) this.randomTickableCount;
+        }
+
+        this.randomTickablePositions[this.randomTickableCount++] = (short) pos;
+
+        if (this.randomTickableSlots == null && this.randomTickableCount > SLOT_TABLE_THRESHOLD) {
+            short[] slots = new short[4096];
+
+            for (int i = 0; i < this.randomTickableCount; i++) {
+                slots[this.randomTickablePositions[i]] = (short) i;
+            }
+
+            this.randomTickableSlots = slots;
+        }
+    }
+
+    private void removeRandomTickablePosition(int pos) {
+        int slot = this.findRandomTickableSlot(pos);
+
+        if (slot < 0) {
+            return;
+        }
+
+        int last = this.randomTickablePositions[--this.randomTickableCount];
+
+        // The order of the index does not matter, so fill the hole with the last element
+        this.randomTickablePositions[slot] = (short) last;
+
+        if (this.randomTickableSlots != null) {
+            this.randomTickableSlots[last] = (short) slot;
+
+            // Free the table once the index has shrunk well below the threshold, so that it isn't rebuilt immediately
+            // when a few positions are added again
+            if (this.randomTickableCount < SLOT_TABLE_THRESHOLD / 2) {
+                this.randomTickableSlots = null;
+            }
+        }
+    }
+
+    private int findRandomTickableSlot(int pos) {
+        if (this.randomTickableSlots != null) {
+            return this.randomTickableSlots[pos];
+        }
+
+        short[] positions = this.randomTickablePositions;
+
+        for (int i = 0; i < this.randomTickableCount; i++) {
+            if (positions[i] == pos) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Inject(method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;", at = @At("RETURN"))
+    private void updateRandomTickIndex(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> cir) {
+        if (this.randomTickablePositions == null) {
+            return;
+        }
+
+        boolean wasTickable = isRandomlyTickable(cir.getReturnValue());
+        boolean isTickable = isRandomlyTickable(state);
+
+        if (wasTickable != isTickable) {
+            int pos = y << 8 | z << 4 | x;
+
+            if (isTickable) {
+                this.addRandomTickablePosition(pos);
+            } else {
+                this.removeRandomTickablePosition(pos);
+            }
+        }
+    }
+
+    /**
+     * The contents of the section were replaced wholesale (e.g. when loading it), so throw away the index.
+     */
+    @Inject(method = "calculateCounts", at = @At("HEAD"))
+    private void invalidateRandomTickIndex(CallbackInfo ci) {
+        this.randomTickablePositions = null;
+        this.randomTickableSlots = null;
+        this.randomTickableCount = 0;
+    }
+
+    private static boolean isRandomlyTickable(BlockState state) {
+        return state.hasRandomTicks() || state.getFluidState().hasRandomTicks();
+    }
+}
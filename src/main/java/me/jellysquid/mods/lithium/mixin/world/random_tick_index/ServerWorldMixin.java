@@ -0,0 +1,82 @@
+package me.jellysquid.mods.lithium.mixin.world.random_tick_index;
+
+import me.jellysquid.mods.lithium.common.world.chunk.RandomTickIndexSource;
+import me.jellysquid.mods.lithium.common.world.chunk.RandomTickableSection;
+import net.minecraft.block.BlockState;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Vanilla picks a number of random positions in each section and reads the block at each of them, even though most
+ * sections contain only a handful of randomly tickable blocks. Instead, this patch draws the same random numbers but
+ * maps them onto the section's index of randomly tickable positions: a draw of {@code r} in [0, 4096) ticks the
+ * {@code r}-th indexed position if {@code r} is less than the number of indexed positions, and does nothing otherwise.
+ * <p>
+ * Every randomly tickable block is therefore ticked with the same probability of 1/4096 per draw as in vanilla, and
+ * the number of draws (and with it the state of the world's random tick generator) stays the same. Only the blocks
+ * which are actually ticked are ever read.
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin {
+    @Redirect(method = "tickChunk", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/ChunkSection;hasRandomTicks()Z"))
+    private boolean tickSectionUsingIndex(ChunkSection section, WorldChunk chunk, int randomTickSpeed) {
+        if (!section.hasRandomTicks()) {
+            return false;
+        }
+
+        ServerWorld world = (ServerWorld) (Object) this;
+        Profiler profiler = world.getProfiler();
+
+        RandomTickableSection index = (RandomTickableSection) section;
+        RandomTickIndexSource source = (RandomTickIndexSource) world;
+
+        ChunkPos chunkPos = chunk.getPos();
+        int startX = chunkPos.getStartX();
+        int startY = section.getYOffset();
+        int startZ = chunkPos.getStartZ();
+
+        for (int i = 0; i < randomTickSpeed; i++) {
+            int rand = source.nextRandomTickIndex();
+
+            // The index can change while ticking, so the count needs to be checked for every draw
+            if (rand >= index.getRandomTickableCount()) {
+                continue;
+            }
+
+            int packed = index.getRandomTickablePosition(rand);
+            int x = packed & 15;
+            int y = packed >> 8 & 15;
+            int z = packed >> 4 & 15;
+
+            BlockPos pos = new BlockPos(startX + x, startY + y, startZ + z);
+
+            profiler.push("randomTick");
+
+            // [VanillaCopy] ServerWorld#tickChunk
+            BlockState blockState = section.getBlockState(x, y, z);
+
+            if (blockState.hasRandomTicks()) {
+                blockState.randomTick(world, pos, world.random);
+            }
+
+            FluidState fluidState = blockState.getFluidState();
+
+            if (fluidState.hasRandomTicks()) {
+                fluidState.onRandomTick(world, pos, world.random);
+            }
+
+            profiler.pop();
+        }
+
+        // The section has been ticked, so skip the vanilla loop
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package me.jellysquid.mods.lithium.mixin.world.random_tick_index;
+
+import me.jellysquid.mods.lithium.common.world.chunk.RandomTickIndexSource;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+@Mixin(World.class)
+public class WorldMixin implements RandomTickIndexSource {
+    @Shadow
+    protected int lcgBlockSeed;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextRandomTickIndex() {
+        // [VanillaCopy] World#getRandomPosInChunk
+        this.lcgBlockSeed = this.lcgBlockSeed * 3 + 1013904223;
+        int rand = this.lcgBlockSeed >> 2;
+
+        return (rand >> 16 & 15) << 8 | (rand >> 8 & 15) << 4 | (rand & 15);
+    }
+}
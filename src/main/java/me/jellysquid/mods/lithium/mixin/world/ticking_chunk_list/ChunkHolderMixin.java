@@ -0,0 +1,33 @@
+package me.jellysquid.mods.lithium.mixin.world.ticking_chunk_list;
+
+import me.jellysquid.mods.lithium.common.world.chunk.TickingChunkHolderTracker;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ChunkHolder.class)
+public class ChunkHolderMixin {
+    @Shadow
+    private int level;
+
+    private boolean isInTickingList;
+
+    /**
+     * Every level change of a holder is applied in this method, so this is where the holder will cross the threshold
+     * for being ticked.
+     */
+    @Inject(method = "tick", at = @At("RETURN"))
+    private void onLevelApplied(ThreadedAnvilChunkStorage chunkStorage, CallbackInfo ci) {
+        boolean ticking = ChunkHolder.getLevelType(this.level).isAfter(ChunkHolder.LevelType.TICKING);
+
+        if (ticking != this.isInTickingList) {
+            this.isInTickingList = ticking;
+
+            ((TickingChunkHolderTracker) chunkStorage).onChunkHolderTickingChanged((ChunkHolder) (Object) this, ticking);
+        }
+    }
+}
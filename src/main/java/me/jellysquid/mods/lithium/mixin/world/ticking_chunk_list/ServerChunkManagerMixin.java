@@ -0,0 +1,24 @@
+package me.jellysquid.mods.lithium.mixin.world.ticking_chunk_list;
+
+import me.jellysquid.mods.lithium.common.world.chunk.TickingChunkHolderTracker;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Vanilla copies every loaded chunk holder into a list each tick, shuffles it, and then skips every holder whose
+ * ticking future isn't available. Holders below the ticking level can never pass that check, so they are left out
+ * of the copy entirely by iterating over a set of ticking holders which is maintained as holder levels change.
+ * <p>
+ * Shuffling the smaller list yields the same distribution of orders for the holders which are actually ticked.
+ */
+@Mixin(ServerChunkManager.class)
+public class ServerChunkManagerMixin {
+    @Redirect(method = "tickChunks", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/world/ThreadedAnvilChunkStorage;entryIterator()Ljava/lang/Iterable;"))
+    private Iterable<ChunkHolder> redirectTickingChunkHolders(ThreadedAnvilChunkStorage storage) {
+        return ((TickingChunkHolderTracker) storage).getTickingChunkHolders();
+    }
+}
@@ -0,0 +1,26 @@
+package me.jellysquid.mods.lithium.mixin.world.ticking_chunk_list;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import me.jellysquid.mods.lithium.common.world.chunk.TickingChunkHolderTracker;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import org.spongepowered.asm.mixin.Mixin;
+
+@Mixin(ThreadedAnvilChunkStorage.class)
+public class ThreadedAnvilChunkStorageMixin implements TickingChunkHolderTracker {
+    private final ReferenceOpenHashSet<ChunkHolder> tickingChunkHolders = new ReferenceOpenHashSet<>();
+
+    @Override
+    public void onChunkHolderTickingChanged(ChunkHolder holder, boolean ticking) {
+        if (ticking) {
+            this.tickingChunkHolders.add(holder);
+        } else {
+            this.tickingChunkHolders.remove(holder);
+        }
+    }
+
+    @Override
+    public Iterable<ChunkHolder> getTickingChunkHolders() {
+        return this.tickingChunkHolders;
+    }
+}
@@ -0,0 +1,99 @@
+package me.jellysquid.mods.lithium.mixin.world.uniform_sky_light;
+
+import me.jellysquid.mods.lithium.common.world.lighting.SharedNibbleArray;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Adds copy-on-write semantics to {@link ChunkNibbleArray}, allowing many light sections with the same contents to
+ * share a single backing array until one of them is modified.
+ * <p>
+ * A section sharing {@link SharedNibbleArray#FULLY_LIT_DATA} is in a uniform state in which every value is 15. The
+ * light engine frequently writes the maximum level into such sections again while propagating sky light through
+ * them, which would otherwise force a copy of the array. These writes are skipped without looking at the array, so
+ * the section stays uniform until its light actually changes.
+ */
+@Mixin(ChunkNibbleArray.class)
+public class ChunkNibbleArrayMixin implements SharedNibbleArray {
+    @Shadow
+    protected byte[] byteArray;
+
+    private boolean copyOnWrite;
+
+    @Override
+    public void markCopyOnWrite() {
+        this.copyOnWrite = true;
+    }
+
+    @Override
+    public boolean isUniformFullyLit() {
+        return this.copyOnWrite && this.byteArray == SharedNibbleArray.FULLY_LIT_DATA;
+    }
+
+    @Override
+    public byte[] getReadOnlyData() {
+        if (this.byteArray == null) {
+            return ((ChunkNibbleArray) (Object) this).asByteArray();
+        }
+
+        return this.byteArray;
+    }
+
+    @Override
+    public boolean isFullyLit() {
+        byte[] data = this.byteArray;
+
+        if (data == null) {
+            return false;
+        }
+
+        if (data == SharedNibbleArray.FULLY_LIT_DATA) {
+            return true;
+        }
+
+        for (byte b : data) {
+            if (b != (byte) 0xFF) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Inject(method = "set(II)V", at = @At("HEAD"), cancellable = true)
+    private void beforeWrite(int index, int value, CallbackInfo ci) {
+        if (this.copyOnWrite) {
+            // Writing the maximum level into a uniform fully lit section doesn't change anything
+            if (value == 15 && this.byteArray == SharedNibbleArray.FULLY_LIT_DATA) {
+                ci.cancel();
+
+                return;
+            }
+
+            this.makeUnique();
+        }
+    }
+
+    /**
+     * Callers of this method may write to the returned array directly, so it must not be shared anymore.
+     */
+    @Inject(method = "asByteArray", at = @At("HEAD"))
+    private void beforeDirectAccess(CallbackInfoReturnable<byte[]> cir) {
+        if (this.copyOnWrite) {
+            this.makeUnique();
+        }
+    }
+
+    private void makeUnique() {
+        this.copyOnWrite = false;
+
+        if (this.byteArray != null) {
+            this.byteArray = this.byteArray.clone();
+        }
+    }
+}
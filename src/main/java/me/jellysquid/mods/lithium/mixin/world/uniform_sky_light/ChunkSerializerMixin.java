@@ -0,0 +1,20 @@
+package me.jellysquid.mods.lithium.mixin.world.uniform_sky_light;
+
+import me.jellysquid.mods.lithium.common.world.lighting.SharedNibbleArray;
+import net.minecraft.world.ChunkSerializer;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(ChunkSerializer.class)
+public class ChunkSerializerMixin {
+    /**
+     * Light data is only read when it is saved, so there is no need to give shared sections their own copy of it.
+     * Otherwise, every fully lit section would lose its shared array the first time its chunk is saved.
+     */
+    @Redirect(method = "serialize", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/ChunkNibbleArray;asByteArray()[B"))
+    private static byte[] getLightDataForSaving(ChunkNibbleArray array) {
+        return ((SharedNibbleArray) array).getReadOnlyData();
+    }
+}
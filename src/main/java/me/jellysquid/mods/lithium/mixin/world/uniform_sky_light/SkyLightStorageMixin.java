@@ -0,0 +1,37 @@
+package me.jellysquid.mods.lithium.mixin.world.uniform_sky_light;
+
+import me.jellysquid.mods.lithium.common.world.lighting.SharedNibbleArray;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import net.minecraft.world.chunk.ColumnChunkNibbleArray;
+import net.minecraft.world.chunk.light.SkyLightStorage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Sky light sections below an open sky are created by repeating the bottom layer of the section above them, which for
+ * air in the open is fully lit. Every such section would otherwise allocate and fill its own 2 KB array containing
+ * nothing but the maximum light level. Instead, the bottom layer of the section above is checked first (only 128
+ * bytes), and if it is fully lit, the new section is created in the uniform fully lit state without allocating any
+ * light data of its own.
+ */
+@Mixin(SkyLightStorage.class)
+public class SkyLightStorageMixin {
+    @Redirect(method = "createSection", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/ColumnChunkNibbleArray;asByteArray()[B"))
+    private byte[] getColumnData(ColumnChunkNibbleArray column) {
+        if (((SharedNibbleArray) column).isFullyLit()) {
+            return SharedNibbleArray.FULLY_LIT_DATA;
+        }
+
+        return column.asByteArray();
+    }
+
+    @Redirect(method = "createSection", at = @At(value = "NEW", target = "([B)Lnet/minecraft/world/chunk/ChunkNibbleArray;"))
+    private ChunkNibbleArray createSectionArray(byte[] data) {
+        if (data == SharedNibbleArray.FULLY_LIT_DATA) {
+            return SharedNibbleArray.createFullyLit();
+        }
+
+        return new ChunkNibbleArray(data);
+    }
+}